@@ -1,7 +1,13 @@
 package com.amaze.MapMaker;
 
+import com.amaze.main.BinaryLevelFormat;
+import com.amaze.main.LevelCache;
+import com.amaze.main.LevelIndex;
+import com.amaze.main.LevelReader;
+import com.amaze.main.MazeGrid;
 import com.amaze.main.Scene;
 import com.amaze.main.Window;
+import com.amaze.solver.ConnectivityTracker;
 import org.jsfml.graphics.*;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
@@ -9,58 +15,57 @@ import org.jsfml.window.Mouse;
 import org.jsfml.window.VideoMode;
 import org.jsfml.window.event.Event;
 
-import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 
 /**
  * @author Jay Feng
  */
-public class MapMakerScene extends Scene {
+public class MapMakerScene extends Scene implements MazeGrid.Listener {
 
-	private Tile[][] tiles;
-	private Texture[] blockTextures;
+	//The order the editor cycles through tile types in
+	private static final com.amaze.main.Tile.BlockType[] EDITOR_ORDER = {
+			com.amaze.main.Tile.BlockType.WALL, com.amaze.main.Tile.BlockType.FLOOR, com.amaze.main.Tile.BlockType.DOOR,
+			com.amaze.main.Tile.BlockType.VOID, com.amaze.main.Tile.BlockType.CHARGE, com.amaze.main.Tile.BlockType.START,
+			com.amaze.main.Tile.BlockType.FINISH
+	};
+
+	private MazeGrid grid;          //The maze being edited
+	private Tile[][] tiles;         //Shows the grid, [x][y]
+	private ConnectivityTracker connectivity;
+	private boolean finishUnreachable;     //There is one START and one FINISH, but no way between them
 
 	private int blocks;
 	private int blockSize;
 	private int numberOfStart;
 	private int numberOfFinish;
 
-	private Tile.BlockType[] allValues = Tile.BlockType.values();
-
 	private RectangleShape textBackground;
 	private Text userLevel;
+	private Text unreachableWarning;
 
-	private Font maze = new Font();
-
-	private ArrayList<Integer> results = new ArrayList<>();
+	private Font maze;
 
 	private Integer highestLevelInFolder;
 
+	private boolean exportBinary = true;       //Also write the binary form of exported levels
+
 	public MapMakerScene(String sceneTitle, Window window, int blocks) throws IOException {
 		super(sceneTitle, window);
 
 		this.blocks = blocks;
 		this.blockSize = window.getSize().x / blocks;  //Work out how many blocks
 
+		grid = new MazeGrid(this.blocks, this.blocks);
+		grid.addListener(this);
+		connectivity = new ConnectivityTracker(grid);
+		grid.addListener(connectivity);
 		tiles = new Tile[this.blocks][this.blocks];
 
-		blockTextures = new Texture[7];
-		for (int i = 0; i < blockTextures.length; i++) {
-			blockTextures[i] = new Texture();
-			blockTextures[i].loadFromFile(Paths.get("res/images/" + allValues[i].toString().toLowerCase() + ".png"));
-			blockTextures[i].setSmooth(true);
-		}
-
 		for (int y = 0; y < this.blocks; y++) {
 			for (int x = 0; x < this.blocks; x++) {
-				tiles[x][y] = new Tile(blockTextures, x, y);
-				tiles[x][y].setTexture(blockTextures[0]);
+				tiles[x][y] = new Tile(x, y);
 				tiles[x][y].setPosition(new Vector2f(translateX(blockSize, x), translateY(blockSize, y)));
 				tiles[x][y].setSize(new Vector2f(blockSize, blockSize));
 			}
@@ -74,18 +79,19 @@ public class MapMakerScene extends Scene {
         switch(event.type) {
             case CLOSED: systemExit(); break;
             case MOUSE_BUTTON_PRESSED:
-                for (Tile[] rows: tiles) {
-                    for (Tile tile: rows) {
-                        if (isMouseOn(tile)) {
+                for (int x = 0; x < blocks; x++) {
+                    for (int y = 0; y < blocks; y++) {
+                        if (isMouseOn(tiles[x][y])) {
 							Mouse.Button b = event.asMouseButtonEvent().button;
 							if (b == Mouse.Button.LEFT) {
-								changeTextureCW(tile);
+								changeTextureCW(x, y);
 							} else {
-								changeTextureACW(tile);
+								changeTextureACW(x, y);
 							}
 						}
                     }
                 }
+                updateReachability();
                 break;
             case KEY_PRESSED:
                 switch (event.asKeyEvent().key) {
@@ -100,6 +106,8 @@ public class MapMakerScene extends Scene {
 							displayTitle("Must have one start and \n\t\t\tone finish",15);
 						} else if (numberOfFinish != 1) {
 							displayTitle("Must have one start and \n\t\t\tone finish",15);
+						} else if (!connectivity.isFinishReachable()) {
+							displayTitle("FINISH unreachable", 12);
 						} else {
 							outputLevel();
 							displayTitle("Export Successful", 12);
@@ -126,16 +134,47 @@ public class MapMakerScene extends Scene {
 		pause(2000);
 	}
 
-	public void changeTextureCW(Tile tile) {
-		int nextImageIndex = Arrays.asList(allValues).indexOf(tile.getBlockType()) + 1;
-		if (nextImageIndex > allValues.length - 1) nextImageIndex = 0;
-		tile.changeBlockType(allValues[nextImageIndex]);
+	public void changeTextureCW(int x, int y) {
+		int nextImageIndex = editorIndex(grid.get(x, y)) + 1;
+		if (nextImageIndex > EDITOR_ORDER.length - 1) nextImageIndex = 0;
+		grid.set(x, y, EDITOR_ORDER[nextImageIndex]);
+	}
+
+	public void changeTextureACW(int x, int y) {
+		int nextImageIndex = editorIndex(grid.get(x, y)) - 1;
+		if (nextImageIndex < 0) nextImageIndex = EDITOR_ORDER.length - 1;
+		grid.set(x, y, EDITOR_ORDER[nextImageIndex]);
+	}
+
+	/**
+	 * Shows the new type of a tile that has been changed in the grid.
+	 */
+	public void tileChanged(int x, int y, com.amaze.main.Tile.BlockType from, com.amaze.main.Tile.BlockType to) {
+		tiles[x][y].changeBlockType(to);
+	}
+
+	public MazeGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Works out whether to warn that FINISH cannot be reached. The warning is only shown once there is one START
+	 * and one FINISH to find a way between.
+	 */
+	public void updateReachability() {
+		countNumbersOfStartEnd();
+		finishUnreachable = numberOfStart == 1 && numberOfFinish == 1 && !connectivity.isFinishReachable();
+	}
+
+	public boolean isFinishUnreachable() {
+		return finishUnreachable;
 	}
 
-	public void changeTextureACW(Tile tile) {
-		int nextImageIndex = Arrays.asList(allValues).indexOf(tile.getBlockType()) - 1;
-		if (nextImageIndex < 0) nextImageIndex = allValues.length - 1;
-		tile.changeBlockType(allValues[nextImageIndex]);
+	private static int editorIndex(com.amaze.main.Tile.BlockType type) {
+		for (int i = 0; i < EDITOR_ORDER.length; i++) {
+			if (EDITOR_ORDER[i] == type) return i;
+		}
+		return 0;
 	}
 
 	public void drawGraphics(RenderWindow window) {
@@ -144,6 +183,7 @@ public class MapMakerScene extends Scene {
 				window.draw(tile);
 			}
 		}
+		if (finishUnreachable && unreachableWarning != null) window.draw(unreachableWarning);
 	}
 
 	/**(
@@ -177,16 +217,28 @@ public class MapMakerScene extends Scene {
 
 	public void outputLevel() {
 		checkHighestLevelInFolder();
+		int levelNumber = ++highestLevelInFolder;
+
 		try {
-			PrintWriter writer = new PrintWriter(new FileWriter("res/Levels/" + (++highestLevelInFolder).toString() + ".txt", true));
+			PrintWriter writer = new PrintWriter(new FileWriter("res/Levels/" + levelNumber + ".txt", true));
 
             for (int y = 0; y < blocks; y++) {
                 for (int x = 0; x < blocks; x++) {
-                    writer.print(tiles[x][y].getBlockType().toString() + ",");
+                    writer.print(grid.get(x, y).toString() + ",");
                 }
                 writer.println("");
             }
             writer.close();
+
+            if (exportBinary) {
+                BinaryLevelFormat.write(BinaryLevelFormat.levelFile(levelNumber), grid.getCells(), blocks, blocks);
+            }
+
+            //Hand the new level to the cache so the level menu does not have to parse it again
+            LevelReader exported = new LevelReader();
+            exported.loadGrid(grid.copy());
+            LevelCache.getShared().put(levelNumber, exported);
+            LevelIndex.getShared().update(levelNumber, exported);
         }
         catch (IOException f) {
             System.err.println("Export Failed");
@@ -194,21 +246,7 @@ public class MapMakerScene extends Scene {
     }
 
 	public void checkHighestLevelInFolder() {
-		File[] files = new File("res/Levels").listFiles();
-
-		for (File f: files != null ? files : new File[0]) {
-			if (f.isFile()) {
-				String[] strings = f.getName().split(".txt");
-
-				if(!strings[0].equals(".DS_Store")){
-					Collections.addAll(results, Integer.parseInt(strings[0]));
-				}
-
-			}
-		}
-
-		Collections.sort(results);
-		highestLevelInFolder = results.get(results.size() - 1);
+		highestLevelInFolder = LevelIndex.getShared().getHighestLevel();
 	}
 
 	public void exportSuccessful() {
@@ -225,11 +263,8 @@ public class MapMakerScene extends Scene {
 			textBackground = new RectangleShape(size);
 			textBackground.setPosition(textBackgroundXCord, textBackgroundYCord);
 
-			maze.loadFromFile(Paths.get("res/fonts/Roboto.ttf"));
-
-			Texture backgroundImage = new Texture();
-			backgroundImage.loadFromFile(Paths.get("res/menuGraphics/Wall.png"));
-			textBackground.setTexture(backgroundImage);
+			maze = acquireFont("res/fonts/Roboto.ttf");
+			textBackground.setTexture(acquireTexture("res/menuGraphics/Wall.png"));
 
 			//Create text
 			int fontSize = getWindow().getScreenWidth() / 11;
@@ -237,6 +272,11 @@ public class MapMakerScene extends Scene {
 			userLevel.setColor(Color.BLACK);
 			userLevel.setStyle(Text.BOLD);
 			userLevel.setOrigin(textXCord, textYCord);
+
+			unreachableWarning = new Text("FINISH unreachable", maze, getWindow().getScreenWidth() / 30);
+			unreachableWarning.setColor(Color.RED);
+			unreachableWarning.setStyle(Text.BOLD);
+			unreachableWarning.setPosition(blockSize / 2, blockSize / 2);
 		}
 		catch (Exception e){
 			System.err.println("Export Failed");
@@ -248,16 +288,17 @@ public class MapMakerScene extends Scene {
 		window.draw(userLevel);
 	}
 
+	public boolean isExportBinary() {
+		return exportBinary;
+	}
+
+	public void setExportBinary(boolean exportBinary) {
+		this.exportBinary = exportBinary;
+	}
+
 	public void countNumbersOfStartEnd(){
-		numberOfStart = numberOfFinish = 0;
-		for (Tile[] row : tiles) {
-			for (Tile tile: row) {
-				switch (tile.getBlockType()) {
-					case FINISH: numberOfFinish++; break;
-					case START: numberOfStart++; break;
-				}
-			}
-		}
+		numberOfStart = grid.getCount(com.amaze.main.Tile.BlockType.START);
+		numberOfFinish = grid.getCount(com.amaze.main.Tile.BlockType.FINISH);
 	}
 
 }
\ No newline at end of file
@@ -1,40 +1,22 @@
 package com.amaze.MapMaker;
 
+import com.amaze.main.TextureAtlas;
 import org.jsfml.graphics.RectangleShape;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 
+/**
+ * Shows one tile of the maze being edited. The type of the tile is kept in the editor's MazeGrid.
+ */
 public class Tile extends RectangleShape {
 
-    public enum BlockType {
-        WALL, FLOOR, DOOR, VOID, CHARGE, START, FINISH
-    }
-
-    private BlockType type = BlockType.WALL;
-    private Texture[] blockTextures = new Texture[BlockType.values().length];
-
-    public Tile(Texture[] blockTextures, float x, float y) {
+    public Tile(float x, float y) {
         super(new Vector2f(x, y));
-        this.blockTextures = blockTextures;
+        setTexture(TextureAtlas.getShared().getTexture());
+        changeBlockType(com.amaze.main.Tile.BlockType.WALL);
     }
 
-    public void changeBlockType(BlockType block) {
-        int index = 0;
-
-        if (block == BlockType.WALL)   index = 0;
-        if (block == BlockType.FLOOR)  index = 1;
-        if (block == BlockType.DOOR)   index = 2;
-        if (block == BlockType.VOID)   index = 3;
-        if (block == BlockType.CHARGE) index = 4;
-        if (block == BlockType.START)  index = 5;
-        if (block == BlockType.FINISH) index = 6;
-
-        setTexture(blockTextures[index]);
-        type = block;
+    public void changeBlockType(com.amaze.main.Tile.BlockType block) {
+        setTextureRect(TextureAtlas.getShared().getTileRect(block));
     }
 
-    public BlockType getBlockType() {
-		return type;
-	}
-
 }
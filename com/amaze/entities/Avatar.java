@@ -1,66 +1,101 @@
 package com.amaze.entities;
 
-import com.amaze.main.GameScene;
+import com.amaze.main.TextureAtlas;
 import org.jsfml.graphics.RectangleShape;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
-import org.jsfml.system.Vector2i;
 
-import java.nio.file.Paths;
 import java.util.Random;
 
 /**
  * Represents an avatar. There will only be one avatar in the maze. This will be the player.
+ *
+ * Where the avatar is and which way it faces are kept in plain fields, which is what the game reads and
+ * changes every tick. The shape it draws with is only brought up to date by updateShape, once a frame.
  */
 public class Avatar extends RectangleShape {
 
-	private Texture[] direction = new Texture[4];
+	private TextureAtlas atlas = TextureAtlas.getShared();
+	private int imageNumber;
 
 	public static final int MAX_IMAGE_NUMBER = 2;
 
+	private int blockSize;
+	private float size;             //Width and height of the avatar's box
+	private float x;                //Top left of the box in the maze, in pixels
+	private float y;
+	private int direction = 1;      //Index into TextureAtlas.DIRECTIONS
+	private int shownDirection = -1;
+
     /**
      * Produces and avatar for the game and picks the texture of the avatar randomly
-     * from the res/avatars.
+     * from the avatars packed into the TextureAtlas.
      * @param startX Start Pixel X location
      * @param startY Start Pixel Y location
      */
 
     public Avatar(int startX, int startY, int blockSize) {
 		Random random = new Random();
-		int imageNumber = random.nextInt(MAX_IMAGE_NUMBER) + 1;
-
-        try{
-			for (int i = 0; i < direction.length; i++) {
-				direction[i] = new Texture();
-			}
-
-			//load in the directions
-			direction[0].loadFromFile(Paths.get("res/avatars/" + imageNumber + "/UP.png"));
-			direction[1].loadFromFile(Paths.get("res/avatars/" + imageNumber + "/DOWN.png"));
-			direction[2].loadFromFile(Paths.get("res/avatars/" + imageNumber + "/LEFT.png"));
-			direction[3].loadFromFile(Paths.get("res/avatars/" + imageNumber + "/RIGHT.png"));
-
-        }catch(Exception e){
-          e.printStackTrace();
-        }
-
-        setSize(new Vector2f((float)(blockSize / 1.2),(float)(blockSize / 1.2)));
-        setPosition(startX,startY);
-        setTexture(direction[1]);
-    }
+		imageNumber = random.nextInt(MAX_IMAGE_NUMBER) + 1;
 
-	public Vector2i getTilePosition() {
-		return new Vector2i(Math.round(this.getPosition().x / GameScene.getBlockSize()), Math.round(this.getPosition().y / GameScene.getBlockSize()));
+		this.blockSize = blockSize;
+		size = (float)(blockSize / 1.2);
+
+        setSize(new Vector2f(size, size));
+        setTexture(atlas.getTexture());
+        setLocation(startX, startY);
+        updateShape(startX, startY);
     }
 
+	public float getX() { return x; }
+
+	public float getY() { return y; }
+
+	/**
+	 * Obtains the width and height of the avatar's box.
+	 */
+	public float getBoxSize() { return size; }
+
+	/**
+	 * Moves the avatar in the maze. The shape follows when it is next drawn.
+	 */
+	public void setLocation(float x, float y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Obtains the tile the avatar's top left is nearest to.
+	 */
+	public int getTileX() { return Math.round(x / blockSize); }
+
+	public int getTileY() { return Math.round(y / blockSize); }
+
+	/**
+	 * Obtains the tile under the centre of the avatar.
+	 */
+	public int getCentreTileX() { return (int) Math.floor((x + size / 2) / blockSize); }
+
+	public int getCentreTileY() { return (int) Math.floor((y + size / 2) / blockSize); }
+
     public void updateImageDirection(String dir){
 		switch(dir){
-			case "UP": setTexture(direction[0]); break;
-			case "DOWN": setTexture(direction[1]); break;
-			case "LEFT": setTexture(direction[2]); break;
-			case "RIGHT": setTexture(direction[3]); break;
-			default: setTexture(direction[0]);
+			case "UP": direction = 0; break;
+			case "DOWN": direction = 1; break;
+			case "LEFT": direction = 2; break;
+			case "RIGHT": direction = 3; break;
+			default: direction = 0;
 		}
     }
 
+	/**
+	 * Moves the shape to where the avatar is drawn this frame, and changes its image if the avatar has turned.
+	 */
+	public void updateShape(float drawX, float drawY) {
+		setPosition(drawX, drawY);
+		if (direction != shownDirection) {
+			setTextureRect(atlas.getAvatarRect(imageNumber, direction));
+			shownDirection = direction;
+		}
+	}
+
 }
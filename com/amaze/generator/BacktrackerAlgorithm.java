@@ -0,0 +1,61 @@
+package com.amaze.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Carves a maze with the recursive backtracker: walk to a random unvisited neighbour, knocking down the wall on
+ * the way, and back up when there is none. This gives long winding corridors with few dead ends.
+ *
+ * The recursion is kept on a stack of its own rather than the call stack, so big mazes do not overflow it. The
+ * stack holds one byte per step, the direction it was taken in, as the cell to back up to can be worked out
+ * from that.
+ */
+public class BacktrackerAlgorithm implements MazeAlgorithm {
+
+	public void carve(MazeCells cells, Random random) {
+		int width = cells.getWidth();
+		long[] visited = new long[(cells.getCellCount() + 63) >>> 6];
+		byte[] stack = new byte[1024];
+		int depth = 0;
+		int[] choices = new int[4];
+
+		int x = random.nextInt(width);
+		int y = random.nextInt(cells.getHeight());
+		visit(visited, y * width + x);
+
+		while (true) {
+			int count = 0;
+			for (int direction = 0; direction < 4; direction++) {
+				int nx = x + MazeCells.DX[direction];
+				int ny = y + MazeCells.DY[direction];
+				if (cells.isInside(nx, ny) && !isVisited(visited, ny * width + nx)) choices[count++] = direction;
+			}
+
+			if (count > 0) {
+				int direction = choices[random.nextInt(count)];
+				cells.carve(x, y, direction);
+				x += MazeCells.DX[direction];
+				y += MazeCells.DY[direction];
+				visit(visited, y * width + x);
+
+				if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+				stack[depth++] = (byte) direction;
+			} else {
+				if (depth == 0) return;
+				int direction = stack[--depth];
+				x -= MazeCells.DX[direction];
+				y -= MazeCells.DY[direction];
+			}
+		}
+	}
+
+	private static boolean isVisited(long[] visited, int cell) {
+		return (visited[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	private static void visit(long[] visited, int cell) {
+		visited[cell >>> 6] |= 1L << cell;
+	}
+
+}
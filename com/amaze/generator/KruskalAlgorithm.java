@@ -0,0 +1,86 @@
+package com.amaze.generator;
+
+import java.util.Random;
+
+/**
+ * Carves a maze with randomized Kruskal: go through the walls between cells in a random order, knocking down
+ * each one whose cells cannot yet reach each other, which is tracked with a union-find. This gives many short
+ * dead ends.
+ *
+ * Shuffling a list of every wall would take more memory than the rest of the maze, so the walls are numbered
+ * and visited in the order of a keyed Feistel permutation of those numbers, which needs only the keys. The walk
+ * stops as soon as every cell has been joined.
+ */
+public class KruskalAlgorithm implements MazeAlgorithm {
+
+	private static final int ROUNDS = 4;
+
+	public void carve(MazeCells cells, Random random) {
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		int[] parent = new int[cells.getCellCount()];
+		for (int cell = 0; cell < parent.length; cell++) parent[cell] = cell;
+
+		//Walls are numbered with those to the east of a cell first, then those to the south
+		long eastWalls = (long) (width - 1) * height;
+		long walls = eastWalls + (long) width * (height - 1);
+
+		//The permutation works on numbers of an even number of bits, at least as many as there are walls
+		int halfBits = 1;
+		while ((1L << (halfBits * 2)) < walls) halfBits++;
+		long[] keys = new long[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) keys[i] = random.nextLong();
+
+		int joins = parent.length - 1;
+		for (long i = 0; i < 1L << (halfBits * 2) && joins > 0; i++) {
+			long wall = permute(i, halfBits, keys);
+			if (wall >= walls) continue;
+
+			int x, y, direction;
+			if (wall < eastWalls) {
+				x = (int) (wall % (width - 1));
+				y = (int) (wall / (width - 1));
+				direction = MazeCells.EAST;
+			} else {
+				x = (int) ((wall - eastWalls) % width);
+				y = (int) ((wall - eastWalls) / width);
+				direction = MazeCells.SOUTH;
+			}
+
+			int a = find(parent, y * width + x);
+			int b = find(parent, (y + MazeCells.DY[direction]) * width + x + MazeCells.DX[direction]);
+			if (a == b) continue;
+
+			parent[a] = b;
+			cells.carve(x, y, direction);
+			joins--;
+		}
+	}
+
+	/**
+	 * Maps a number to another of the same number of bits, a different one for every number.
+	 */
+	private static long permute(long value, int halfBits, long[] keys) {
+		long mask = (1L << halfBits) - 1;
+		long left = value >>> halfBits;
+		long right = value & mask;
+
+		for (long key : keys) {
+			long mixed = (right ^ key) * 0x9E3779B97F4A7C15L;
+			mixed ^= mixed >>> 29;
+			long next = left ^ (mixed & mask);
+			left = right;
+			right = next;
+		}
+		return (left << halfBits) | right;
+	}
+
+	private static int find(int[] parent, int cell) {
+		while (parent[cell] != cell) {
+			parent[cell] = parent[parent[cell]];
+			cell = parent[cell];
+		}
+		return cell;
+	}
+
+}
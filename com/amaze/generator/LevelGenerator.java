@@ -0,0 +1,301 @@
+package com.amaze.generator;
+
+import com.amaze.main.BinaryLevelFormat;
+import com.amaze.main.LevelIndex;
+import com.amaze.main.Tile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates levels of any size, in the formats LevelReader reads.
+ *
+ * Cells of the maze sit on the even rows and columns of the level, with the tiles between them floor where the
+ * maze is open and wall where it is not, like the hand made levels. START is the top left cell and FINISH the
+ * bottom right one. Once the maze is carved, the one way from START to FINISH is found and the level is
+ * decorated as it is written out:
+ *     doors go only on that way, so one closing behind the player never shuts them off from FINISH
+ *     voids go only off that way, so it can always be walked without standing on one
+ *     charges go anywhere
+ *
+ * The level is written a row of tiles at a time from the carved cells, so only a row of tiles is ever held, and
+ * the same seed always gives the same level.
+ */
+public class LevelGenerator {
+
+	public static final float DEFAULT_VOID_DENSITY = 0.03F;
+	public static final float DEFAULT_CHARGE_DENSITY = 0.01F;
+	public static final float DEFAULT_DOOR_DENSITY = 0.1F;
+
+	private static final byte WALL = (byte) Tile.BlockType.WALL.ordinal();
+	private static final byte FLOOR = (byte) Tile.BlockType.FLOOR.ordinal();
+	private static final byte DOOR = (byte) Tile.BlockType.DOOR.ordinal();
+	private static final byte START = (byte) Tile.BlockType.START.ordinal();
+	private static final byte FINISH = (byte) Tile.BlockType.FINISH.ordinal();
+	private static final byte VOID = (byte) Tile.BlockType.VOID.ordinal();
+	private static final byte CHARGE = (byte) Tile.BlockType.CHARGE.ordinal();
+
+	//The csv token of each BlockType, by ordinal
+	private static final byte[][] TOKENS = new byte[Tile.BlockType.values().length][];
+	static {
+		for (Tile.BlockType type : Tile.BlockType.values()) {
+			TOKENS[type.ordinal()] = (type.name() + ",").getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+	private interface RowWriter {
+		void writeRow(byte[] row) throws IOException;
+	}
+
+	private int width;
+	private int height;
+	private long seed;
+	private MazeAlgorithm algorithm;
+
+	private float voidDensity = DEFAULT_VOID_DENSITY;        //Chance of a floor off the way to FINISH being a void
+	private float chargeDensity = DEFAULT_CHARGE_DENSITY;    //Chance of a floor being a charge
+	private float doorDensity = DEFAULT_DOOR_DENSITY;        //Chance of a gap between cells on the way to FINISH being a door
+
+	private MazeCells cells;        //Carved on first use
+	private long[] path;            //One bit per cell, set for the cells on the way from START to FINISH
+
+	/**
+	 * @param width - width of the level in tiles
+	 * @param height - height of the level in tiles, at least 3 if the width is less than 3
+	 */
+	public LevelGenerator(int width, int height, long seed, MazeAlgorithm algorithm) {
+		if (width <= 0 || height <= 0 || (width < 3 && height < 3)) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " level has no room for both a START and a FINISH");
+		}
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Obtains an algorithm by name: backtracker, kruskal or wilson.
+	 * @throws IllegalArgumentException if there is no algorithm of that name
+	 */
+	public static MazeAlgorithm algorithmNamed(String name) {
+		switch (name.toLowerCase()) {
+			case "backtracker": return new BacktrackerAlgorithm();
+			case "kruskal": return new KruskalAlgorithm();
+			case "wilson": return new WilsonAlgorithm();
+			default: throw new IllegalArgumentException("Unknown maze algorithm " + name);
+		}
+	}
+
+	public int getWidth() { return width; }
+
+	public int getHeight() { return height; }
+
+	public long getSeed() { return seed; }
+
+	public float getVoidDensity() { return voidDensity; }
+
+	public void setVoidDensity(float voidDensity) { this.voidDensity = checkDensity(voidDensity); }
+
+	public float getChargeDensity() { return chargeDensity; }
+
+	public void setChargeDensity(float chargeDensity) { this.chargeDensity = checkDensity(chargeDensity); }
+
+	public float getDoorDensity() { return doorDensity; }
+
+	public void setDoorDensity(float doorDensity) { this.doorDensity = checkDensity(doorDensity); }
+
+	/**
+	 * Obtains the carved maze, carving it if it has not been yet.
+	 */
+	public MazeCells getCells() {
+		if (cells == null) {
+			cells = new MazeCells((width + 1) / 2, (height + 1) / 2);
+			algorithm.carve(cells, new Random(seed));
+			path = findPath(cells);
+		}
+		return cells;
+	}
+
+	/**
+	 * Writes the level as csv, one row per line with every tile followed by a comma.
+	 */
+	public void writeText(OutputStream out) throws IOException {
+		BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+		writeRows(row -> {
+			for (byte tile : row) buffered.write(TOKENS[tile]);
+			buffered.write('\n');
+		});
+		buffered.flush();
+	}
+
+	/**
+	 * Writes the level in the binary level format.
+	 */
+	public void writeBinary(File file) throws IOException {
+		try (BinaryLevelFormat.RowWriter writer = new BinaryLevelFormat.RowWriter(file, width, height)) {
+			writeRows(row -> writer.writeRow(row, 0));
+		}
+	}
+
+	/**
+	 * Writes the level as res/Levels/N.txt, and its binary form next to it. The level menu and the game only
+	 * handle square levels, so other sizes can only be written with writeText and writeBinary.
+	 * @throws IllegalArgumentException if the level is not square
+	 */
+	public void writeLevel(int levelNumber) throws IOException {
+		if (width != height) {
+			throw new IllegalArgumentException("Only square levels can be played, not " + width + "x" + height);
+		}
+
+		try (OutputStream out = new FileOutputStream(LevelIndex.LEVEL_FOLDER + "/" + levelNumber + ".txt")) {
+			writeText(out);
+		}
+		//Written second, so it is at least as new as the csv and is the form that gets loaded
+		writeBinary(BinaryLevelFormat.levelFile(levelNumber));
+	}
+
+	/**
+	 * Builds the tiles a row at a time and hands each row to the writer.
+	 */
+	private void writeRows(RowWriter writer) throws IOException {
+		MazeCells cells = getCells();
+		Random random = new Random(seed ^ 0x5DEECE66DL);        //Apart from the carving's, so the decoration is the same every time
+		byte[] row = new byte[width];
+		int lastX = cells.getWidth() - 1;
+		int lastY = cells.getHeight() - 1;
+
+		for (int y = 0; y < height; y++) {
+			Arrays.fill(row, WALL);
+			int cellY = y / 2;
+
+			for (int x = 0; x < width; x++) {
+				int cellX = x / 2;
+				boolean evenX = x % 2 == 0;
+				boolean evenY = y % 2 == 0;
+
+				if (evenX && evenY) {
+					if (cellX == 0 && cellY == 0) row[x] = START;
+					else if (cellX == lastX && cellY == lastY) row[x] = FINISH;
+					else row[x] = decorate(random, onPath(cellX, cellY), false);
+				} else if (evenY) {
+					if (cells.isOpen(cellX, cellY, MazeCells.EAST)) {
+						row[x] = decorate(random, onPath(cellX, cellY) && onPath(cellX + 1, cellY), true);
+					}
+				} else if (evenX) {
+					if (cells.isOpen(cellX, cellY, MazeCells.SOUTH)) {
+						row[x] = decorate(random, onPath(cellX, cellY) && onPath(cellX, cellY + 1), true);
+					}
+				}
+			}
+			writer.writeRow(row);
+		}
+	}
+
+	/**
+	 * Chooses what a floor tile becomes.
+	 * @param onPath - the tile is on the way from START to FINISH
+	 * @param gap - the tile is between two cells rather than on one
+	 */
+	private byte decorate(Random random, boolean onPath, boolean gap) {
+		float chance = random.nextFloat();
+		if (onPath) {
+			if (gap && chance < doorDensity) return DOOR;
+			if (chance >= 1 - chargeDensity) return CHARGE;
+		} else {
+			if (chance < voidDensity) return VOID;
+			if (chance >= 1 - chargeDensity) return CHARGE;
+		}
+		return FLOOR;
+	}
+
+	private boolean onPath(int cellX, int cellY) {
+		int cell = cellY * cells.getWidth() + cellX;
+		return (path[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	/**
+	 * Finds the cells on the way from the top left cell to the bottom right one. The maze is a tree, so a depth
+	 * first search that never turns back the way it came finds the one way there. Like the backtracker, it keeps
+	 * its stack as one byte per step, here the direction taken and the next direction to try.
+	 */
+	private static long[] findPath(MazeCells cells) {
+		int width = cells.getWidth();
+		int lastX = width - 1;
+		int lastY = cells.getHeight() - 1;
+		long[] path = new long[(cells.getCellCount() + 63) >>> 6];
+		byte[] stack = new byte[1024];
+		int depth = 0;
+
+		int x = 0, y = 0;
+		int cameIn = -1;            //Direction this cell was stepped onto in, -1 for the first cell
+		int next = 0;               //Next direction to try from this cell
+		while (x != lastX || y != lastY) {
+			while (next < 4 && (!cells.isOpen(x, y, next) || (cameIn >= 0 && next == MazeCells.OPPOSITE[cameIn]))) next++;
+
+			if (next < 4) {
+				if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+				stack[depth++] = (byte) ((cameIn + 1) << 3 | next);
+				x += MazeCells.DX[next];
+				y += MazeCells.DY[next];
+				cameIn = next;
+				next = 0;
+			} else {
+				//Dead end, back up and try the next way out of the cell before
+				x -= MazeCells.DX[cameIn];
+				y -= MazeCells.DY[cameIn];
+				int step = stack[--depth];
+				cameIn = (step >> 3) - 1;
+				next = (step & 7) + 1;
+			}
+		}
+
+		//The stack holds the way there, so walk it again from the top left to mark its cells
+		x = 0;
+		y = 0;
+		mark(path, 0);
+		for (int i = 0; i < depth; i++) {
+			int direction = stack[i] & 7;
+			x += MazeCells.DX[direction];
+			y += MazeCells.DY[direction];
+			mark(path, y * width + x);
+		}
+		return path;
+	}
+
+	private static void mark(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	private static float checkDensity(float density) {
+		if (density < 0 || density > 1) throw new IllegalArgumentException("Density must be between 0 and 1, not " + density);
+		return density;
+	}
+
+	/**
+	 * Generates a level as the next free level number.
+	 * Arguments: algorithm (backtracker, kruskal or wilson), width, height (the same as the width), and optionally
+	 * the seed.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.err.println("Usage: LevelGenerator <backtracker|kruskal|wilson> <width> <height> [seed]");
+			return;
+		}
+
+		try {
+			MazeAlgorithm algorithm = algorithmNamed(args[0]);
+			int width = Integer.parseInt(args[1]);
+			int height = Integer.parseInt(args[2]);
+			long seed = args.length > 3 ? Long.parseLong(args[3]) : System.currentTimeMillis();
+
+			int levelNumber = LevelIndex.getShared().getNextFreeLevel();
+			new LevelGenerator(width, height, seed, algorithm).writeLevel(levelNumber);
+			System.out.println("Generated level " + levelNumber + " (" + width + " x " + height + ", seed " + seed + ")");
+		} catch (IllegalArgumentException | IOException e) {
+			System.err.println("Could not generate level: " + e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.amaze.generator;
+
+import java.util.Random;
+
+/**
+ * A way of carving a maze. Every algorithm carves a perfect maze: there is exactly one way between any two cells.
+ */
+public interface MazeAlgorithm {
+
+	/**
+	 * Knocks down walls between the cells until every cell can be reached from every other. The same cells and
+	 * random numbers always give the same maze.
+	 */
+	void carve(MazeCells cells, Random random);
+
+}
@@ -0,0 +1,90 @@
+package com.amaze.generator;
+
+/**
+ * The cells of a maze being generated, and which of the walls between them have been knocked down.
+ *
+ * Each cell becomes a floor tile of the level, with a tile between it and each neighbour that is a floor if the
+ * wall between them is open. Only two bits are kept per cell, whether it is open to the east and to the south,
+ * so very big mazes can be carved before being written out.
+ */
+public class MazeCells {
+
+	public static final int NORTH = 0;
+	public static final int SOUTH = 1;
+	public static final int WEST = 2;
+	public static final int EAST = 3;
+
+	//Step to the neighbour in each direction
+	public static final int[] DX = {0, 0, -1, 1};
+	public static final int[] DY = {-1, 1, 0, 0};
+	public static final int[] OPPOSITE = {SOUTH, NORTH, EAST, WEST};
+
+	private int width;
+	private int height;
+	private long[] east;            //One bit per cell, row-major, set when it is open to the east
+	private long[] south;
+
+	public MazeCells(int width, int height) {
+		if (width <= 0 || height <= 0) throw new IllegalArgumentException("A maze needs cells, not " + width + "x" + height);
+		this.width = width;
+		this.height = height;
+
+		int words = (int) (((long) width * height + 63) >>> 6);
+		east = new long[words];
+		south = new long[words];
+	}
+
+	public int getWidth() { return width; }
+
+	public int getHeight() { return height; }
+
+	public int getCellCount() { return width * height; }
+
+	public boolean isInside(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+
+	/**
+	 * Knocks down the wall between a cell and its neighbour.
+	 * @throws IndexOutOfBoundsException if the neighbour is outside the maze
+	 */
+	public void carve(int x, int y, int direction) {
+		int nx = x + DX[direction];
+		int ny = y + DY[direction];
+		if (!isInside(x, y) || !isInside(nx, ny)) {
+			throw new IndexOutOfBoundsException("No wall " + direction + " of cell " + x + "," + y + " in a " + width + "x" + height + " maze");
+		}
+
+		switch (direction) {
+			case EAST: set(east, y * width + x); break;
+			case SOUTH: set(south, y * width + x); break;
+			case WEST: set(east, ny * width + nx); break;
+			case NORTH: set(south, ny * width + nx); break;
+		}
+	}
+
+	/**
+	 * Checks whether a cell is open to its neighbour. Cells are never open to outside the maze.
+	 */
+	public boolean isOpen(int x, int y, int direction) {
+		int nx = x + DX[direction];
+		int ny = y + DY[direction];
+		if (!isInside(x, y) || !isInside(nx, ny)) return false;
+
+		switch (direction) {
+			case EAST: return isSet(east, y * width + x);
+			case SOUTH: return isSet(south, y * width + x);
+			case WEST: return isSet(east, ny * width + nx);
+			default: return isSet(south, ny * width + nx);
+		}
+	}
+
+	private static boolean isSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+}
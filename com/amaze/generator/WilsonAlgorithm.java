@@ -0,0 +1,55 @@
+package com.amaze.generator;
+
+import java.util.Random;
+
+/**
+ * Carves a maze with Wilson's algorithm: from each cell not yet in the maze, take a random walk until it runs
+ * into the maze, and add the walk with its loops taken out. Every possible maze is equally likely, so there is
+ * no bias towards long corridors or short dead ends.
+ *
+ * A walk only remembers the direction it last left each cell in, one byte per cell, which takes the loops out
+ * as it goes. The first walks have a small maze to run into and can be very long, so this is the slowest of
+ * the algorithms on big mazes.
+ */
+public class WilsonAlgorithm implements MazeAlgorithm {
+
+	private static final byte IN_MAZE = 4;      //Set in a cell's byte once it is in the maze
+
+	public void carve(MazeCells cells, Random random) {
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		byte[] state = new byte[cells.getCellCount()];      //IN_MAZE, or the direction the walk last left in
+
+		state[random.nextInt(state.length)] = IN_MAZE;
+
+		for (int first = 0; first < state.length; first++) {
+			if (state[first] == IN_MAZE) continue;
+
+			//Walk until the maze is reached, remembering the way out of each cell
+			int x = first % width;
+			int y = first / width;
+			while (state[y * width + x] != IN_MAZE) {
+				int direction;
+				do {
+					direction = random.nextInt(4);
+				} while (!cells.isInside(x + MazeCells.DX[direction], y + MazeCells.DY[direction]));
+
+				state[y * width + x] = (byte) direction;
+				x += MazeCells.DX[direction];
+				y += MazeCells.DY[direction];
+			}
+
+			//Follow the remembered ways out from the start, which skips the loops, and add the cells to the maze
+			x = first % width;
+			y = first / width;
+			while (state[y * width + x] != IN_MAZE) {
+				int direction = state[y * width + x];
+				state[y * width + x] = IN_MAZE;
+				cells.carve(x, y, direction);
+				x += MazeCells.DX[direction];
+				y += MazeCells.DY[direction];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.amaze.main;
+
+import org.jsfml.audio.SoundBuffer;
+import org.jsfml.graphics.Font;
+import org.jsfml.graphics.Texture;
+import org.jsfml.system.Vector2i;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+/**
+ * Loads each texture, font and sound once and shares it between everything that uses it.
+ *
+ * Every acquire of a path must be matched by a release. When nothing holds an asset any more it is dropped
+ * from the registry so JSFML can free its native memory, and the next acquire loads it again.
+ * Scenes acquire through Scene.acquireTexture and friends, which release for them when the scene is left.
+ */
+public class AssetRegistry {
+
+	private static final AssetRegistry shared = new AssetRegistry();
+
+	private final HashMap<String, Asset> assets = new HashMap<>();
+
+	private int loads = 0;
+	private int hits = 0;
+	private long loadedBytes = 0;
+
+	private static class Asset {
+		final Object value;
+		final long bytes;
+		int references = 0;
+
+		Asset(Object value, long bytes) {
+			this.value = value;
+			this.bytes = bytes;
+		}
+	}
+
+	public static AssetRegistry getShared() {
+		return shared;
+	}
+
+	public synchronized Texture acquireTexture(String path) throws IOException {
+		Asset asset = assets.get(path);
+		if (asset == null) {
+			Texture texture = new Texture();
+			texture.loadFromFile(Paths.get(path));
+			texture.setSmooth(true);
+
+			Vector2i size = texture.getSize();
+			asset = add(path, texture, (long) size.x * size.y * 4);
+		} else {
+			hits++;
+		}
+		return (Texture) reference(asset);
+	}
+
+	public synchronized Font acquireFont(String path) throws IOException {
+		Asset asset = assets.get(path);
+		if (asset == null) {
+			Font font = new Font();
+			font.loadFromFile(Paths.get(path));
+			asset = add(path, font, new File(path).length());
+		} else {
+			hits++;
+		}
+		return (Font) reference(asset);
+	}
+
+	public synchronized SoundBuffer acquireSound(String path) throws IOException {
+		Asset asset = assets.get(path);
+		if (asset == null) {
+			SoundBuffer sound = new SoundBuffer();
+			sound.loadFromFile(Paths.get(path));
+			asset = add(path, sound, new File(path).length());
+		} else {
+			hits++;
+		}
+		return (SoundBuffer) reference(asset);
+	}
+
+	/**
+	 * Gives up one reference to an asset, dropping it once nothing holds it.
+	 */
+	public synchronized void release(String path) {
+		Asset asset = assets.get(path);
+		if (asset == null) return;
+
+		if (--asset.references <= 0) {
+			assets.remove(path);
+			loadedBytes -= asset.bytes;
+		}
+	}
+
+	/**
+	 * Obtains the number of times an asset has been read from disk.
+	 */
+	public synchronized int getLoads() { return loads; }
+
+	/**
+	 * Obtains the number of times an asset was already loaded when it was acquired.
+	 */
+	public synchronized int getHits() { return hits; }
+
+	/**
+	 * Obtains an estimate of the memory held by the loaded assets: pixel data for textures, file size otherwise.
+	 */
+	public synchronized long getLoadedBytes() { return loadedBytes; }
+
+	public synchronized int getLoadedCount() { return assets.size(); }
+
+	public synchronized int getReferences(String path) {
+		Asset asset = assets.get(path);
+		return asset == null ? 0 : asset.references;
+	}
+
+	private Asset add(String path, Object value, long bytes) {
+		Asset asset = new Asset(value, bytes);
+		assets.put(path, asset);
+		loads++;
+		loadedBytes += bytes;
+		return asset;
+	}
+
+	private Object reference(Asset asset) {
+		asset.references++;
+		return asset.value;
+	}
+
+}
@@ -1,21 +1,20 @@
 package com.amaze.main;
 
 import org.jsfml.graphics.RectangleShape;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 
 import java.io.IOException;
-import java.nio.file.Paths;
 
 /**
- * Represents a battery
+ * Represents a battery. The charge frames are all in the TextureAtlas, so changing the charge only
+ * switches which part of the atlas is shown.
  */
 public class Battery extends RectangleShape {
 
     public static final int MAX = 6;
 
     private int chargeLevel; //Ranges from 0 to 6
-    private Texture texture;
+    private TextureAtlas atlas = TextureAtlas.getShared();
 
 	/**
      *
@@ -32,7 +31,7 @@ public class Battery extends RectangleShape {
         this.setPosition(batteryXCord,batteryYCord);
         this.setSize(new Vector2f(batteryWidth, batterHeight));
         this.chargeLevel = defaultLevel;
-        this.texture = new Texture();
+        this.setTexture(atlas.getTexture());
         changeChargeLevel(chargeLevel);
     }
 
@@ -42,12 +41,7 @@ public class Battery extends RectangleShape {
      * @param level the level of the battery
      */
     public void changeChargeLevel(int level) {
-        try{
-			texture.loadFromFile(Paths.get("res/images/battery/" + Integer.toString(level) + ".png"));
-            this.setTexture(texture);
-        }catch (Exception e){
-            System.out.println("There was a problem with loading the battery icon");
-        }
+        this.setTextureRect(atlas.getBatteryRect(Math.max(1, Math.min(MAX, level))));
     }
 
     public int getChargeLevel() {
@@ -74,7 +68,7 @@ public class Battery extends RectangleShape {
     public void decreaseChargeLevel(int level) {
         if (chargeLevel <= 1) return;
 
-        chargeLevel -= level;
+        chargeLevel = Math.max(1, chargeLevel - level);
         changeChargeLevel(chargeLevel);
     }
 
@@ -0,0 +1,209 @@
+package com.amaze.main;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compact binary form of a level, stored next to the csv as res/Levels/N.amz
+ *
+ * Layout (little endian):
+ *     int   magic         "AMZL"
+ *     short version
+ *     short reserved
+ *     int   width
+ *     int   height
+ *     int[] tile counts   one per BlockType, in ordinal order
+ *     bytes tiles         3 bits per tile, row-major, packed from the lowest bit of each byte upwards
+ */
+public class BinaryLevelFormat {
+
+	public static final int MAGIC = 0x4C5A4D41;        //"AMZL" when read as bytes
+	public static final short VERSION = 1;
+	public static final String EXTENSION = ".amz";
+
+	public static final int BITS_PER_TILE = 3;
+	public static final int HEADER_SIZE = 16 + 4 * Tile.BlockType.values().length;
+
+	//Most tiles whose packed bytes still fit in one buffer after the header
+	public static final long MAX_TILES = (Integer.MAX_VALUE - HEADER_SIZE) * 8L / BITS_PER_TILE;
+
+	private static final int TILE_MASK = (1 << BITS_PER_TILE) - 1;
+
+	/**
+	 * Obtains the binary file for a level number.
+	 */
+	public static File levelFile(int levelNumber) {
+		return new File("res/Levels/" + levelNumber + EXTENSION);
+	}
+
+	/**
+	 * Maps a binary level file read-only. The returned buffer is positioned at the start of the header.
+	 */
+	public static MappedByteBuffer map(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+	}
+
+	/**
+	 * Checks the header of a binary level and returns the number of bytes the packed tiles take up.
+	 */
+	public static int checkHeader(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < HEADER_SIZE) throw new IOException("Binary level is too short");
+
+		int base = buffer.position();
+		if (buffer.getInt(base) != MAGIC) throw new IOException("Not a binary level");
+		if (buffer.getShort(base + 4) != VERSION) throw new IOException("Unsupported binary level version " + buffer.getShort(base + 4));
+
+		int width = buffer.getInt(base + 8);
+		int height = buffer.getInt(base + 12);
+		if (width <= 0 || height <= 0) throw new IOException("Binary level has no tiles");
+		if ((long) width * height > MAX_TILES) throw new IOException("Binary level is too big: " + width + "x" + height);
+
+		int packed = packedSize((long) width * height);
+		if (buffer.remaining() < HEADER_SIZE + packed) throw new IOException("Binary level is truncated");
+		return packed;
+	}
+
+	public static int getWidth(ByteBuffer buffer) {
+		return buffer.getInt(buffer.position() + 8);
+	}
+
+	public static int getHeight(ByteBuffer buffer) {
+		return buffer.getInt(buffer.position() + 12);
+	}
+
+	public static int getTileCount(ByteBuffer buffer, int ordinal) {
+		return buffer.getInt(buffer.position() + 16 + 4 * ordinal);
+	}
+
+	/**
+	 * Unpacks the tiles of a checked binary level straight from the buffer into the grid.
+	 * @param grid receives width * height tile ordinals, row-major
+	 */
+	public static void unpack(ByteBuffer buffer, byte[] grid) {
+		int in = buffer.position() + HEADER_SIZE;
+		int bits = 0;
+		int available = 0;
+
+		for (int i = 0; i < grid.length; i++) {
+			if (available < BITS_PER_TILE) {
+				bits |= (buffer.get(in++) & 0xFF) << available;
+				available += 8;
+			}
+			grid[i] = (byte) (bits & TILE_MASK);
+			bits >>>= BITS_PER_TILE;
+			available -= BITS_PER_TILE;
+		}
+	}
+
+	/**
+	 * Writes a level in binary form.
+	 * @param grid tile ordinals, row-major
+	 */
+	public static void write(File file, byte[] grid, int width, int height) throws IOException {
+		try (RowWriter writer = new RowWriter(file, width, height)) {
+			for (int y = 0; y < height; y++) writer.writeRow(grid, y * width);
+		}
+	}
+
+	/**
+	 * Writes a level in binary form a row at a time, so the whole level never has to be in memory. The header is
+	 * written with the tile counts left at 0, and they are filled in by close once every row has been written.
+	 */
+	public static class RowWriter implements Closeable {
+
+		private static final int BUFFER_SIZE = 64 * 1024;
+
+		private RandomAccessFile raf;
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private int width;
+		private int height;
+		private int rows;
+		private int[] counts = new int[Tile.BlockType.values().length];
+
+		private int bits;           //Packed tiles not yet written out
+		private int used;
+
+		public RowWriter(File file, int width, int height) throws IOException {
+			if (width <= 0 || height <= 0) throw new IllegalArgumentException("A level needs tiles, not " + width + "x" + height);
+			this.width = width;
+			this.height = height;
+
+			raf = new RandomAccessFile(file, "rw");
+			channel = raf.getChannel();
+			channel.truncate(0);
+
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(width).putInt(height);
+			for (int i = 0; i < counts.length; i++) buffer.putInt(0);
+		}
+
+		/**
+		 * Packs the next row of the level.
+		 * @param tiles tile ordinals, the row starting at offset
+		 */
+		public void writeRow(byte[] tiles, int offset) throws IOException {
+			if (rows == height) throw new IOException("A " + width + "x" + height + " level has no more rows");
+
+			for (int i = offset; i < offset + width; i++) {
+				counts[tiles[i]]++;
+				bits |= (tiles[i] & TILE_MASK) << used;
+				used += BITS_PER_TILE;
+				if (used >= 8) {
+					if (!buffer.hasRemaining()) flush();
+					buffer.put((byte) bits);
+					bits >>>= 8;
+					used -= 8;
+				}
+			}
+			rows++;
+		}
+
+		/**
+		 * Writes the last of the tiles and the tile counts, and closes the file.
+		 * @throws IOException if fewer rows were written than the level has
+		 */
+		public void close() throws IOException {
+			try {
+				if (rows != height) throw new IOException("Only " + rows + " of " + height + " rows were written");
+
+				if (used > 0) {
+					if (!buffer.hasRemaining()) flush();
+					buffer.put((byte) bits);
+					used = 0;
+				}
+				flush();
+
+				ByteBuffer header = ByteBuffer.allocate(4 * counts.length).order(ByteOrder.LITTLE_ENDIAN);
+				for (int count : counts) header.putInt(count);
+				header.flip();
+				for (long position = 16; header.hasRemaining(); ) position += channel.write(header, position);
+			} finally {
+				channel.close();
+				raf.close();
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) channel.write(buffer);
+			buffer.clear();
+		}
+
+	}
+
+	private static int packedSize(long tiles) {
+		return Math.toIntExact((tiles * BITS_PER_TILE + 7) / 8);
+	}
+
+}
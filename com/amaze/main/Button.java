@@ -87,6 +87,15 @@ public abstract class Button extends RectangleShape {
 
     public Texture getSelectedIcon() { return selectedIcon; }
 
+    /**
+     * Replaces the icons shown when the button is and is not selected.
+     */
+    public void setIcons(Texture defaultIcon, Texture selectedIcon) {
+        this.defaultIcon = defaultIcon;
+        this.selectedIcon = selectedIcon;
+        setIcon(selected ? selectedIcon : defaultIcon);
+    }
+
     public void setIcon(Texture t) {
         t.setSmooth(true);
         setTexture(t);
@@ -0,0 +1,63 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.FloatRect;
+import org.jsfml.graphics.View;
+import org.jsfml.system.Vector2f;
+
+/**
+ * The part of the maze shown in the window. When the maze is bigger than the area it is shown in, the camera
+ * follows the avatar and stops at the edges of the maze. Otherwise it shows the whole maze from the top left.
+ */
+public class Camera {
+
+	private View view;
+	private float viewWidth;
+	private float viewHeight;
+	private float mazeWidth;
+	private float mazeHeight;
+
+	/**
+	 * @param viewWidth - width of the area the maze is shown in, in pixels
+	 * @param viewHeight - height of the area the maze is shown in, in pixels
+	 * @param windowHeight - height of the window, which also holds the HUD below the maze
+	 * @param mazeWidth - width of the whole maze, in pixels
+	 * @param mazeHeight - height of the whole maze, in pixels
+	 */
+	public Camera(float viewWidth, float viewHeight, float windowHeight, float mazeWidth, float mazeHeight) {
+		this.viewWidth = viewWidth;
+		this.viewHeight = viewHeight;
+		this.mazeWidth = mazeWidth;
+		this.mazeHeight = mazeHeight;
+
+		view = new View(new FloatRect(0, 0, viewWidth, viewHeight));
+		view.setViewport(new FloatRect(0, 0, 1, viewHeight / windowHeight));
+	}
+
+	/**
+	 * Checks whether the maze is too big to be shown at once.
+	 */
+	public boolean isScrolling() {
+		return mazeWidth > viewWidth || mazeHeight > viewHeight;
+	}
+
+	/**
+	 * Centres the view on a point of the maze, keeping it inside the maze.
+	 */
+	public void follow(float x, float y) {
+		float left = clamp(x - viewWidth / 2, mazeWidth - viewWidth);
+		float top = clamp(y - viewHeight / 2, mazeHeight - viewHeight);
+
+		//Whole pixels, so the tiles do not shimmer while scrolling
+		view.setCenter(Math.round(left) + viewWidth / 2, Math.round(top) + viewHeight / 2);
+	}
+
+	public View getView() {
+		return view;
+	}
+
+	private static float clamp(float value, float max) {
+		if (max <= 0) return 0;
+		return Math.max(0, Math.min(value, max));
+	}
+
+}
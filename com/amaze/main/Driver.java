@@ -8,12 +8,13 @@ class Driver{
 
     static int BLOCK_SIZE; //Number of blocks to display on X/Y axis
     static int WINDOW_SIZE; //Resolution(number of pixels) on X/Y axis
+    static final int FRAME_RATE = 60; //Frames drawn per second
+    static final int MIN_BLOCK_SIZE = 20; //Smallest readable tile, bigger mazes scroll instead of shrinking
 
 	public static void main(String[] args) throws Exception{
 		WINDOW_SIZE = 600;
 
-        LevelReader level = new LevelReader();
-        level.loadMap(1);
+        LevelReader level = LevelCache.getShared().get(1);
 
 		int BLOCK_SIZE = WINDOW_SIZE / level.getSizeOfMaze();
 
@@ -21,9 +22,12 @@ class Driver{
 		//Then we cant display properly and therefore won't load the window!
         if (WINDOW_SIZE % BLOCK_SIZE > 0) System.out.println("Wrong size");
 
-        // Create new window and set FPS limit to 60
+        // Create new window and limit how often it is redrawn. The game itself runs at GameScene.TICKS_PER_SECOND
         Window window = new Window(WINDOW_SIZE, WINDOW_SIZE + 60);
-        window.setFramerateLimit(120);
+        window.setFramerateLimit(FRAME_RATE);
+
+        //Pack the in-game images into one texture now, while we are on the render thread
+        TextureAtlas.getShared();
 
         //Create Menu Scene
         MenuScene menu = new MenuScene("Main Menu",window);
@@ -0,0 +1,84 @@
+package com.amaze.main;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Runs timed game effects, such as the drain of standing next to a void, on the game loop's thread.
+ *
+ * Time is counted in game ticks, so effects happen at the same point of the game whatever the frame rate.
+ * Effects due on the same tick run in the order they were scheduled. An effect can be given a key and a
+ * cooldown, so asking for it every tick still only applies it once per cooldown.
+ */
+public class EffectScheduler {
+
+	private long now = 0;
+	private long scheduled = 0;
+
+	private PriorityQueue<Effect> queue = new PriorityQueue<>();
+	private HashMap<String, Long> cooldowns = new HashMap<>();     //Key of an effect to the tick it may run again
+
+	private static class Effect implements Comparable<Effect> {
+		final long due;
+		final long order;
+		final Runnable action;
+
+		Effect(long due, long order, Runnable action) {
+			this.due = due;
+			this.order = order;
+			this.action = action;
+		}
+
+		public int compareTo(Effect other) {
+			if (due != other.due) return Long.compare(due, other.due);
+			return Long.compare(order, other.order);
+		}
+	}
+
+	/**
+	 * Runs an action a number of ticks from now. An action with no delay runs on the next tick.
+	 */
+	public void schedule(int delayTicks, Runnable action) {
+		queue.add(new Effect(now + Math.max(1, delayTicks), scheduled++, action));
+	}
+
+	/**
+	 * Runs an action straight away, unless an action with the same key has run within the cooldown.
+	 * @return true if the action ran
+	 */
+	public boolean trigger(String key, int cooldownTicks, Runnable action) {
+		Long readyAt = cooldowns.get(key);
+		if (readyAt != null && now < readyAt) return false;
+
+		cooldowns.put(key, now + cooldownTicks);
+		action.run();
+		return true;
+	}
+
+	/**
+	 * Moves time on by one tick and runs every action that has become due.
+	 */
+	public void tick() {
+		now++;
+		while (!queue.isEmpty() && queue.peek().due <= now) {
+			queue.poll().action.run();
+		}
+	}
+
+	/**
+	 * Drops every pending action and cooldown.
+	 */
+	public void clear() {
+		queue.clear();
+		cooldowns.clear();
+	}
+
+	public long getTick() {
+		return now;
+	}
+
+	public int getPending() {
+		return queue.size();
+	}
+
+}
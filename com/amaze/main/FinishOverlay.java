@@ -0,0 +1,76 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+/**
+ * The window shown over the game when a level is completed, asking the player for their username.
+ *
+ * Everything is laid out once when the overlay is created. While the player types only the username text is
+ * changed, and only when the name is different from the one shown.
+ */
+public class FinishOverlay implements Drawable {
+
+	private RectangleShape textBackground;
+	private Text message;
+	private Text message2;
+	private Text userNameText;
+
+	private String shownUserName = "";
+
+	/**
+	 * @param background - texture behind the text
+	 * @param textFont - font of the messages
+	 * @param userInputFont - font of the username being typed
+	 */
+	public FinishOverlay(Window window, Texture background, Font textFont, Font userInputFont) {
+		float textBackgroundHeight = window.getScreenHeight() / 5;
+		float textBackgroundWidth  = window.getScreenWidth() / 1.25F;
+		float textBackgroundXCord  = window.getScreenWidth() / 2 - (textBackgroundWidth / 2);
+		float textBackgroundYCord  = window.getScreenHeight() / 2  - (textBackgroundHeight / 1.5F);
+
+		textBackground = new RectangleShape(new Vector2f(textBackgroundWidth, textBackgroundHeight));
+		textBackground.setTexture(background);
+		textBackground.setPosition(textBackgroundXCord, textBackgroundYCord);
+
+		float textXCord = window.getScreenWidth() / -4.5F;
+		float textYCord = window.getScreenHeight() / -2.8F;
+		int fontSize = window.getScreenWidth() / 14;
+
+		message = new Text("Level Completed!", textFont, fontSize);
+		message.setColor(Color.BLACK);
+		message.setStyle(Text.BOLD);
+		message.setOrigin(textXCord, textYCord);
+
+		message2 = new Text("Enter your username: \n", textFont, fontSize);
+		message2.setColor(Color.BLACK);
+		message2.setStyle(Text.BOLD);
+		message2.setOrigin(textXCord + 35, textYCord - 40);
+
+		float textXCordUserInput = window.getScreenWidth() / -4.5F;
+		float textYCordUserInput = window.getScreenHeight() / -3.5F;
+
+		userNameText = new Text(shownUserName, userInputFont, fontSize);
+		userNameText.setColor(Color.BLACK);
+		userNameText.setStyle(Text.BOLD);
+		userNameText.setOrigin(textXCordUserInput + 35, textYCordUserInput - 130);
+	}
+
+	/**
+	 * Shows the username typed so far. The text is left alone if it has not changed.
+	 */
+	public void setUserName(String userName) {
+		if (userName.equals(shownUserName)) return;
+
+		shownUserName = userName;
+		userNameText.setString(userName);
+	}
+
+	public void draw(RenderTarget target, RenderStates states) {
+		target.draw(textBackground, states);
+		target.draw(message, states);
+		target.draw(message2, states);
+		target.draw(userNameText, states);
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+/**
+ * Covers everything the FogOfWar hides with black quads, drawn over the maze in one call.
+ *
+ * The quads are only rebuilt when the fog's window changes. Rows are covered with runs of hidden tiles,
+ * and consecutive rows with the same runs share one quad, so the mask is a handful of quads whatever the
+ * size of the maze.
+ */
+public class FogMask implements Drawable {
+
+	private static final int MAX_SPANS = 3;     //The window and two landmarks
+	private static final int MAX_RUNS = MAX_SPANS + 1;
+
+	private int width;
+	private int height;
+	private int blockSize;
+
+	private VertexArray quads = new VertexArray(PrimitiveType.QUADS);
+	private int[] visibleSpans = new int[MAX_SPANS * 2];
+
+	public FogMask(int width, int height, int blockSize) {
+		this.width = width;
+		this.height = height;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Rebuilds the mask from the fog's current window and landmarks.
+	 */
+	public void rebuild(FogOfWar fog) {
+		quads.clear();
+
+		int[] runs = new int[MAX_RUNS * 2];
+		int[] previous = new int[MAX_RUNS * 2];
+		int runCount = 0;
+		int previousCount = -1;
+		int firstRow = 0;
+
+		for (int y = 0; y <= height; y++) {
+			if (y < height) runCount = hiddenRuns(fog, y, runs);
+
+			if (y == height || runCount != previousCount || !sameRuns(runs, previous, runCount)) {
+				//Close the quads of the rows that had the previous runs
+				for (int i = 0; i < previousCount; i++) {
+					addQuad(previous[i * 2], firstRow, previous[i * 2 + 1], y);
+				}
+				System.arraycopy(runs, 0, previous, 0, runCount * 2);
+				previousCount = runCount;
+				firstRow = y;
+			}
+		}
+	}
+
+	/**
+	 * Works out the runs of hidden tiles along a row, as [start, end) pairs. The visible spans of a row are
+	 * the fog's window and any landmarks on it, and the hidden runs are the gaps between them.
+	 * @return the number of runs
+	 */
+	private int hiddenRuns(FogOfWar fog, int y, int[] runs) {
+		int spans = 0;
+		if (y >= fog.getTop() && y <= fog.getBottom() && fog.getLeft() <= fog.getRight()) {
+			spans = addSpan(spans, fog.getLeft(), fog.getRight() + 1);
+		}
+		if (y == fog.getStartY()) spans = addSpan(spans, fog.getStartX(), fog.getStartX() + 1);
+		if (y == fog.getEndY()) spans = addSpan(spans, fog.getEndX(), fog.getEndX() + 1);
+
+		int count = 0;
+		int x = 0;
+		for (int i = 0; i < spans; i++) {
+			if (visibleSpans[i * 2] > x) {
+				runs[count * 2] = x;
+				runs[count * 2 + 1] = visibleSpans[i * 2];
+				count++;
+			}
+			x = Math.max(x, visibleSpans[i * 2 + 1]);
+		}
+		if (x < width) {
+			runs[count * 2] = x;
+			runs[count * 2 + 1] = width;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Inserts a visible span, keeping the spans sorted by where they start.
+	 */
+	private int addSpan(int spans, int start, int end) {
+		int i = spans;
+		while (i > 0 && visibleSpans[(i - 1) * 2] > start) {
+			visibleSpans[i * 2] = visibleSpans[(i - 1) * 2];
+			visibleSpans[i * 2 + 1] = visibleSpans[(i - 1) * 2 + 1];
+			i--;
+		}
+		visibleSpans[i * 2] = start;
+		visibleSpans[i * 2 + 1] = end;
+		return spans + 1;
+	}
+
+	private static boolean sameRuns(int[] a, int[] b, int count) {
+		for (int i = 0; i < count * 2; i++) {
+			if (a[i] != b[i]) return false;
+		}
+		return true;
+	}
+
+	private void addQuad(int left, int top, int right, int bottom) {
+		quads.add(new Vertex(new Vector2f(left * blockSize, top * blockSize), Color.BLACK));
+		quads.add(new Vertex(new Vector2f(right * blockSize, top * blockSize), Color.BLACK));
+		quads.add(new Vertex(new Vector2f(right * blockSize, bottom * blockSize), Color.BLACK));
+		quads.add(new Vertex(new Vector2f(left * blockSize, bottom * blockSize), Color.BLACK));
+	}
+
+	public void draw(RenderTarget target, RenderStates states) {
+		target.draw(quads, states);
+	}
+
+}
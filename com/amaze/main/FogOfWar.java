@@ -1,9 +1,11 @@
 package com.amaze.main;
 
-import com.amaze.entities.Avatar;
-import org.jsfml.system.Clock;
-import org.jsfml.system.Vector2i;
-
+/**
+ * Limits what the player can see to a square window around them, plus the start and finish tiles.
+ *
+ * The window is worked out once whenever the player changes tile or the fog changes size, so drawing only
+ * has to look at the tiles inside it rather than asking about every tile in the maze.
+ */
 public class FogOfWar {
 
 	public static final int MAX_SIZE = 7;
@@ -11,17 +13,36 @@ public class FogOfWar {
 
 	private int size;
 	private Battery battery;
-	private GameScene gameScene;
-	private long elapsedTime;
+	private long elapsedTicks;
+
+	private int mazeWidth;
+	private int mazeHeight;
+	private int startX = -1, startY = -1;
+	private int endX = -1, endY = -1;
+
+	//Visible window in tiles, inclusive, and what it was worked out from
+	private int left, top, right = -1, bottom = -1;
+	private int viewX = Integer.MIN_VALUE, viewY = Integer.MIN_VALUE, viewSize;
 
 	/**
 	 * Set the initial size
 	 */
-	public FogOfWar(int size, Battery battery, GameScene gameScene) {
+	public FogOfWar(int size, Battery battery, int mazeWidth, int mazeHeight) {
 		this.size = (size >= 2) ? size : 2;
 		this.battery = battery;
-		this.gameScene = gameScene;
-		elapsedTime = 0;
+		this.mazeWidth = mazeWidth;
+		this.mazeHeight = mazeHeight;
+		elapsedTicks = 0;
+	}
+
+	/**
+	 * Sets the tiles that can always be seen, whatever the size of the fog.
+	 */
+	public void setLandmarks(int startX, int startY, int endX, int endY) {
+		this.startX = startX;
+		this.startY = startY;
+		this.endX = endX;
+		this.endY = endY;
 	}
 
 	public void increase() {
@@ -40,38 +61,67 @@ public class FogOfWar {
 
 	/**
 	 * The function which will automatically drain the battery
+	 *
+	 * @param elapsedTicks - game ticks passed since the last update
 	 */
-	public void update(Clock clock) {
+	public void update(int elapsedTicks) {
 		if (size <= 0) return;
 
 		//update the elapsed time
-		elapsedTime = clock.getElapsedTime().asMilliseconds();
-
-		//check if elapsed time is greater than the trigger
+		this.elapsedTicks += elapsedTicks;
 
-		//The amount of time before it drains
-		int drainTime = 3000;
+		//The amount of time before it drains, counted in ticks so it is exactly 3 seconds of game time
+		int drainTicks = 3 * GameScene.TICKS_PER_SECOND;
 
-		if (elapsedTime >= drainTime) {
-			//set the elapsed time to 0 and reset the clock
-			elapsedTime = 0;
+		if (this.elapsedTicks >= drainTicks) {
+			this.elapsedTicks -= drainTicks;
 			drain();
 			battery.decreaseChargeLevel(1);
-			clock.restart();
 		}
 	}
 
 	/**
-	 * Based off the avatar, check the coordinate and return true if the tile can be rendered
+	 * Works out the visible window around the player's tile, if the player has moved tile or the fog has
+	 * changed size since it was last worked out.
+	 * @return true if the window has changed
+	 */
+	public boolean updateView(int playerX, int playerY) {
+		int currentSize = size;
+		if (playerX == viewX && playerY == viewY && currentSize == viewSize) return false;
+
+		viewX = playerX;
+		viewY = playerY;
+		viewSize = currentSize;
+
+		left = Math.max(0, playerX - currentSize + 1);
+		top = Math.max(0, playerY - currentSize + 1);
+		right = Math.min(mazeWidth - 1, playerX + currentSize - 1);
+		bottom = Math.min(mazeHeight - 1, playerY + currentSize - 1);
+		return true;
+	}
+
+	/**
+	 * Checks whether a tile can be seen, using the window from the last updateView
 	 */
-	public boolean getView(int x, int y, Avatar player) {
-		Vector2i startPos = gameScene.getStartTilePos();
-		Vector2i endPos = gameScene.getEndTilePos();
-		Vector2i playPos = player.getTilePosition();
-	 
-		return (x == startPos.x && y == startPos.y || x == (endPos.x) && y == (endPos.y)) ||
-				x < playPos.x + size && x > playPos.x - size &&
-				y < playPos.y + size && y > playPos.y - size;
+	public boolean isVisible(int x, int y) {
+		return (x == startX && y == startY || x == endX && y == endY) ||
+				x >= left && x <= right && y >= top && y <= bottom;
 	}
 
+	public int getLeft() { return left; }
+
+	public int getTop() { return top; }
+
+	public int getRight() { return right; }
+
+	public int getBottom() { return bottom; }
+
+	public int getStartX() { return startX; }
+
+	public int getStartY() { return startY; }
+
+	public int getEndX() { return endX; }
+
+	public int getEndY() { return endY; }
+
 }
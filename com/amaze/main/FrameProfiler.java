@@ -0,0 +1,175 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Times each phase of the game loop and keeps a histogram of how long every phase took per frame.
+ *
+ * Timing a phase is two calls to System.nanoTime and an addition, and finishing a frame adds one count to
+ * each histogram, so the profiler can stay switched on. Histograms have eight buckets per power of two of
+ * microseconds, so percentiles are accurate to about 12%. The overlay shows p50 and p99 of every phase and
+ * is refreshed twice a second.
+ */
+public class FrameProfiler implements Drawable {
+
+	public static final int EVENTS = 0;
+	public static final int MOVE = 1;
+	public static final int FOG = 2;
+	public static final int HUD = 3;
+	public static final int CLEAR = 4;
+	public static final int DRAW = 5;
+	public static final int DISPLAY = 6;
+	public static final int FRAME = 7;
+	public static final String[] PHASES = {"pollEvents", "movePlayer", "fog.update", "hud", "clear", "drawGraphics", "display", "frame"};
+
+	private static final int SUB_BUCKETS = 8;
+	private static final int BUCKETS = SUB_BUCKETS + 29 * SUB_BUCKETS;
+	private static final long OVERLAY_REFRESH = 500_000_000L;
+
+	private long[][] histograms = new long[PHASES.length][BUCKETS];
+	private long[] totals = new long[PHASES.length];        //Nanoseconds over all frames
+	private long[] maximums = new long[PHASES.length];
+	private long[] frameTimes = new long[PHASES.length];    //Nanoseconds in the frame being timed
+	private long frames = 0;
+	private long frameStart = 0;
+
+	private boolean overlayVisible = false;
+	private Text overlay;
+	private long overlayUpdated = 0;
+	private StringBuilder overlayText = new StringBuilder();
+
+	public FrameProfiler(Font font, int fontSize) {
+		overlay = new Text("", font, fontSize);
+		overlay.setColor(Color.WHITE);
+		overlay.setPosition(4, 4);
+	}
+
+	/**
+	 * Starts timing a frame.
+	 */
+	public void startFrame() {
+		frameStart = System.nanoTime();
+	}
+
+	/**
+	 * Starts timing a phase.
+	 * @return the time to hand to end
+	 */
+	public long begin() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Adds the time since begin to a phase of the current frame. A phase may be timed several times a frame.
+	 */
+	public void end(int phase, long begin) {
+		frameTimes[phase] += System.nanoTime() - begin;
+	}
+
+	/**
+	 * Adds the times of the frame to the histograms.
+	 */
+	public void endFrame() {
+		long now = System.nanoTime();
+		frameTimes[FRAME] = now - frameStart;
+
+		for (int phase = 0; phase < PHASES.length; phase++) {
+			long time = frameTimes[phase];
+			histograms[phase][bucket(time / 1000)]++;
+			totals[phase] += time;
+			if (time > maximums[phase]) maximums[phase] = time;
+			frameTimes[phase] = 0;
+		}
+		frames++;
+
+		if (overlayVisible && now - overlayUpdated >= OVERLAY_REFRESH) {
+			updateOverlay();
+			overlayUpdated = now;
+		}
+	}
+
+	public void toggleOverlay() {
+		overlayVisible = !overlayVisible;
+		if (overlayVisible) {
+			updateOverlay();
+			overlayUpdated = System.nanoTime();
+		}
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Obtains a percentile of the time a phase took per frame.
+	 * @param percentile - from 0 to 100
+	 * @return the time in microseconds, rounded down to its bucket
+	 */
+	public long getPercentile(int phase, double percentile) {
+		if (frames == 0) return 0;
+
+		long rank = (long) Math.ceil(frames * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += histograms[phase][i];
+			if (seen >= Math.max(1, rank)) return bucketStart(i);
+		}
+		return bucketStart(BUCKETS - 1);
+	}
+
+	/**
+	 * Writes the statistics of every phase to a CSV file, in microseconds.
+	 */
+	public void writeCsv(String path) {
+		try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+			out.println("phase,frames,mean_us,p50_us,p90_us,p99_us,max_us");
+			for (int phase = 0; phase < PHASES.length; phase++) {
+				out.println(PHASES[phase] + "," + frames + "," + (frames == 0 ? 0 : totals[phase] / frames / 1000) + ","
+						+ getPercentile(phase, 50) + "," + getPercentile(phase, 90) + "," + getPercentile(phase, 99) + ","
+						+ maximums[phase] / 1000);
+			}
+		} catch (IOException e) {
+			System.err.println("Could not write the frame profile to " + path);
+			e.printStackTrace();
+		}
+	}
+
+	public void draw(RenderTarget target, RenderStates states) {
+		if (overlayVisible) target.draw(overlay, states);
+	}
+
+	private void updateOverlay() {
+		overlayText.setLength(0);
+		overlayText.append("phase  p50  p99 (us)\n");
+		for (int phase = 0; phase < PHASES.length; phase++) {
+			overlayText.append(PHASES[phase]).append("  ").append(getPercentile(phase, 50))
+					.append("  ").append(getPercentile(phase, 99)).append('\n');
+		}
+		overlay.setString(overlayText.toString());
+	}
+
+	/**
+	 * Finds the histogram bucket of a time. Below SUB_BUCKETS microseconds every value has a bucket, above
+	 * that each power of two is split into SUB_BUCKETS.
+	 */
+	private static int bucket(long micros) {
+		if (micros < SUB_BUCKETS) return (int) Math.max(0, micros);
+
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int sub = (int) (micros >> (exponent - 3)) & (SUB_BUCKETS - 1);
+		return Math.min(BUCKETS - 1, SUB_BUCKETS + (exponent - 3) * SUB_BUCKETS + sub);
+	}
+
+	private static long bucketStart(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+
+		int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 3;
+		int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return (long) (SUB_BUCKETS + sub) << (exponent - 3);
+	}
+
+}
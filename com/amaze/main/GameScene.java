@@ -1,9 +1,9 @@
 package com.amaze.main;
 import com.amaze.entities.Avatar;
 import org.jsfml.audio.Music;
+import org.jsfml.audio.Sound;
 import org.jsfml.graphics.*;
 import org.jsfml.system.Clock;
-import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 import org.jsfml.window.VideoMode;
 import org.jsfml.window.event.Event;
@@ -17,16 +17,22 @@ import java.util.Random;
  */
 public class GameScene extends Scene {
 
+	public static final int TICKS_PER_SECOND = 120;     //Rate the game is simulated at, whatever the frame rate
+	private static final float TICK = 1F / TICKS_PER_SECOND;
+	private static final float MAX_FRAME_TIME = 0.25F;  //Longest frame caught up on, so a stall cannot snowball
+
+	private static final float PLAYER_SPEED = 120F;     //Pixels per second
+
 	private static int blockSize;       //Size of each block. W and H
 
 	private int blockCount;             //Number of blocks in a row
-	private Tile[][] tileMap;           //Represents the maze
+	private MazeGrid maze;              //Represents the maze, drawn by the tile layer
+	private TileCollider collider;      //Stops the player at walls
 	private Avatar player;              //Represents the player(avatar)
 	private Battery battery;            //
 	private Music music;                //Background music
 	private FogOfWar fog;
-	private Text txtScore;
-	private Text txtTime;
+	private Hud hud;                    //Score and timer
 	private Vector2i startTile;
 	private Vector2i endTile;
 	private String userName = "";
@@ -40,31 +46,40 @@ public class GameScene extends Scene {
 
 	private int charges = 0;
 	private int score = 1200;
-
-	private Texture[] tileTexture;
-
-	private RectangleShape textBackground;
-	private Text message;
-	private Text message2;
+	private long ticks = 0;             //Ticks simulated since the level started
+	private float previousPlayerX;      //Where the player was before the last tick
+	private float previousPlayerY;
+
+	private TileLayer tileLayer;        //Draws the whole maze in one call
+	private FogMask fogMask;            //Covers the tiles hidden by the fog
+	private Camera camera;              //Part of the maze shown in the window
+	private int drawCalls = 0;          //Draw calls issued by the last drawGraphics
+	private FrameProfiler profiler;     //Times each phase of the game loop, shown with F3
+	private boolean profileWritten = false;
+
+	private FinishOverlay finishOverlay;    //Asks for the username when the level is completed
 	private MusicButton musicButton;
 
-	private int fontSizeUserInput;
-	private float textXCordUserInput;
-	private float textYCordUserInput;
-
-	private Font textFontUserInput;
 	private boolean listeningForUserName;
 
 	private int currentLevel;
 
-	private Clock voidDetectionClock = new Clock();
-	private double totalTimeSpentInVoid = 0;
-	private boolean voidClockToggled = false;
+	private static final int VOID_DRAIN_COOLDOWN = TICKS_PER_SECOND / 2;   //Ticks between drains next to a void
+	private static final int VOID_FOG_DELAY = TICKS_PER_SECOND / 2;        //Ticks from a drain until the fog closes in
+
+	private static final int DOOR_CLOSE_DELAY = TICKS_PER_SECOND;      //Ticks from entering a door until it closes
+	private static final int DOOR_REOPEN_DELAY = 0;                     //Ticks a closed door stays closed, 0 for ever
+	private static final int CHARGE_RESPAWN_DELAY = 0;                  //Ticks until a taken charge is back, 0 for never
 
+	private EffectScheduler effects = new EffectScheduler();
+	private TileTransitions transitions;    //Doors closing and other timed tile changes
+	private VoidField voidField;            //Number of voids around each tile
+	private double totalTimeSpentInVoid = 0;
+	private long voidExposureStart = -1;    //Tick the player came next to a void, -1 when they are not
 	private double timeExposedToVoid = 0;
 
-	private Music chargesSound;
-	private Music voidsSound;
+	private Sound chargesSound;
+	private Sound voidsSound;
 
 	/**
 	 * This constructor creates an instance of a GameScene.
@@ -74,37 +89,34 @@ public class GameScene extends Scene {
 	 * @param sceneTitle - sets title of the window.
 	 *                   set to "aMaze" when creating
 	 *                   an instance of the GameScene.
+	 * @param level - the level to play. The game plays on a copy, so the level is left as it is.
 	 */
 
-	public GameScene(String sceneTitle, Window window, int blocks, int blockSize, Tile.BlockType[][] level, int currentLevel) throws Exception {
+	public GameScene(String sceneTitle, Window window, int blockSize, MazeGrid level, int currentLevel) throws Exception {
 		super(sceneTitle, window);
 		this.currentLevel = currentLevel;
 
-		Tile currentlyLoaded;
-
 		GameScene.blockSize = blockSize;
 
-		blockCount = level.length;
+		maze = level.copy();
+		blockCount = maze.getWidth();
+		int blocks = blockCount;
 
-		tileMap = new Tile[blocks][blocks];
 		player = new Avatar(0, 0, blockSize);
 
-        /* Cache textures before we start using them in order to increase performance */
-		tileTexture = new Texture[7];
-		for (int i = 0; i < tileTexture.length; i++) {
-			tileTexture[i] = new Texture();
-			tileTexture[i].loadFromFile(Paths.get("res/images/" + Tile.BlockType.values()[i].toString().toLowerCase() + ".png"));
-			tileTexture[i].setSmooth(true);
-		}
+		/* Everything that follows the tiles is told when they change */
+		tileLayer = new TileLayer(maze, blockSize);
+		voidField = new VoidField(maze);
+		maze.addListener(tileLayer);
+		maze.addListener(voidField);
+		transitions = new TileTransitions(effects, maze);
+		collider = new TileCollider(maze, blockSize);
 
-        /* Create new instances of tiles */
-		for (int j = 0; j < blocks; j++) {
-			for (int i = 0; i < blocks; i++) {
-				tileMap[i][j] = new Tile(translateX(i), translateY(j), GameScene.blockSize, GameScene.blockSize, level[i][j], tileTexture);
-			}
-		}
-
-		window.create(new VideoMode((int)tileMap[blocks - 1][blocks - 1].getPosition().x + blockSize, (int)(tileMap[blocks - 1][blocks - 1].getPosition().y + blockSize) + 60),"Game");
+		/* Mazes bigger than the window are scrolled by the camera */
+		int mazePixels = blocks * blockSize;
+		int viewPixels = Math.min(mazePixels, Driver.WINDOW_SIZE);
+		window.create(new VideoMode(viewPixels, viewPixels + 60),"Game");
+		camera = new Camera(viewPixels, viewPixels, viewPixels + 60, mazePixels, mazePixels);
 
 		float batteryXCord = window.getScreenWidth();
 		float batteryYCord = window.getScreenHeight();
@@ -114,41 +126,45 @@ public class GameScene extends Scene {
 
         /* Load background music */
 		music = new Music();
-		chargesSound = new Music();
-		voidsSound = new Music();
+		chargesSound = new Sound();
+		voidsSound = new Sound();
 		try {
 			String musicPaths[] = {"res/music/gs2.wav", "res/music/gs3.wav", "res/music/theme.wav"};
 			music.openFromFile(Paths.get(musicPaths[new Random().nextInt(musicPaths.length)]));
-			chargesSound.openFromFile(Paths.get("res/music/Newcharge.wav"));
-			voidsSound.openFromFile(Paths.get("res/music/newvoid.wav"));
+			chargesSound.setBuffer(acquireSound("res/music/Newcharge.wav"));
+			voidsSound.setBuffer(acquireSound("res/music/newvoid.wav"));
 		} catch (IOException e) {
 			System.out.println("There was a problem loading the background music \n Error: " + e);
 		}
 
 		/* Load font and text*/
-		Font scoreFont = new Font();
+		Font scoreFont;
 		try {
-			scoreFont.loadFromFile(Paths.get("res/fonts/Coolvetica.ttf"));
+			scoreFont = acquireFont("res/fonts/Coolvetica.ttf");
 		} catch (IOException e) {
 			System.out.println("Could not load the font!");
+			scoreFont = new Font();
 		}
 
         /* Create fog of war */
-		fog = new FogOfWar(blockCount / 4, battery, this);
+		fog = new FogOfWar(blockCount / 4, battery, blocks, blocks);
 
 		int txtScoreFont = window.getScreenWidth()/25;
 		float txtScoreXCord = window.getScreenWidth() - window.getScreenWidth() / 1.02F;
 		float txtScoreYCord = window.getScreenHeight() -40;
 
-		txtScore = new Text("Score: \t100", scoreFont, txtScoreFont);
+		Text txtScore = new Text("Score: \t100", scoreFont, txtScoreFont);
 		txtScore.setPosition(txtScoreXCord, txtScoreYCord);
 
 		int txtTimeFont = window.getScreenWidth()/25;
 		float txtTimeXCord = window.getScreenWidth() - window.getScreenWidth() / 4;
 		float txtTimeYCord = (window.getScreenHeight() - window.getScreenHeight() / 16);
-		txtTime = new Text("Time: \t1:23", scoreFont, txtTimeFont);
+		Text txtTime = new Text("Time: \t1:23", scoreFont, txtTimeFont);
 		txtTime.setPosition(txtTimeXCord, txtTimeYCord);
 
+		hud = new Hud(txtScore, txtTime);
+		profiler = new FrameProfiler(scoreFont, window.getScreenWidth() / 40);
+
 		float musicButtonHeight = window.getScreenHeight() / 14;
 		float musicButtonWidth = window.getScreenHeight() / 12;
 		float musicButtonXCord = window.getScreenWidth() / 3F;
@@ -157,29 +173,24 @@ public class GameScene extends Scene {
 		musicButton = new MusicButton(musicButtonXCord,musicButtonYCord,musicButtonWidth,musicButtonHeight, window);
 
         /* Change avatar location */
-		for(int i = 0;i < blocks; i++){
-			for(int j = 0; j < blocks; j++){
-				currentlyLoaded = tileMap[i][j];
-
-				if (currentlyLoaded.getTileType() == Tile.BlockType.START) {
-					player.setPosition(currentlyLoaded.getPosition());
-					Vector2f temp = currentlyLoaded.getPosition();
-					startTile = new Vector2i((int)temp.x,(int)temp.y);
-				}
-				if (currentlyLoaded.getTileType() == Tile.BlockType.FINISH) {
-					endTile = new Vector2i(Math.round(currentlyLoaded.getPosition().x/blockSize), Math.round(currentlyLoaded.getPosition().y/blockSize));
-				}
-			}
-		}
+		int start = maze.find(Tile.BlockType.START);
+		int finish = maze.find(Tile.BlockType.FINISH);
+		startTile = new Vector2i(translateX(start % blocks), translateY(start / blocks));
+		endTile = new Vector2i(finish % blocks, finish / blocks);
+		player.setLocation(startTile.x, startTile.y);
+
+		/* The start and finish can always be seen through the fog */
+		int startX = startTile.x / blockSize;
+		int startY = startTile.y / blockSize;
+		fog.setLandmarks(startX, startY, endTile.x, endTile.y);
+		rememberPlayerPosition();
+		fogMask = new FogMask(blocks, blocks, blockSize);
 
-		fontSizeUserInput = getWindow().getScreenWidth() / 14;
-		textXCordUserInput = getWindow().getScreenWidth() / -4.5F;
-		textYCordUserInput = getWindow().getScreenHeight() / -3.5F;
-
-		textFontUserInput = new Font();
 		try {
-			textFontUserInput.loadFromFile(Paths.get("res/fonts/Arial.ttf"));
+			finishOverlay = new FinishOverlay(window, acquireTexture("res/menuGraphics/Wall.png"),
+					acquireFont("res/fonts/Roboto.ttf"), acquireFont("res/fonts/Arial.ttf"));
 		} catch (IOException e) {
+			System.err.println("There was a problem loading the finish window.");
 			e.printStackTrace();
 		}
 	}
@@ -216,46 +227,75 @@ public class GameScene extends Scene {
 
 		music.play();
 		music.setLoop(true);
-		Clock clock = new Clock();
-		Clock timer = new Clock();
-
-		Clock gameClock = new Clock();
-
-		int minute = 0;
+		Clock frameClock = new Clock();
+		float accumulator = 0;
+		rememberPlayerPosition();
 
 		while (isRunning()){
 			try {
-				getWindow().clear(Color.BLACK);
-				drawGraphics(getWindow());
-				movePlayer();
-				fog.update(clock);
+				profiler.startFrame();
 
-				int second = (int) timer.getElapsedTime().asSeconds();
-				txtTime.setString("Time: \t" + minute + ":" + ((second < 10) ? "0" + second : second));
-
-				updateScore(gameClock);
-				txtScore.setString("Score: \t" + score);
-
-				if (second >= 60) {
-					timer.restart();
-					minute++;
-				}
+				long phase = profiler.begin();
 				for (Event event : getWindow().pollEvents()) {
 					executeEvent(event);
 				}
+				profiler.end(FrameProfiler.EVENTS, phase);
+
+				/* Run as many fixed ticks as the time since the last frame covers */
+				accumulator += Math.min(frameClock.restart().asSeconds(), MAX_FRAME_TIME);
+				while (accumulator >= TICK && isRunning()) {
+					tick();
+					accumulator -= TICK;
+				}
+
+				phase = profiler.begin();
+				int seconds = (int) (ticks / TICKS_PER_SECOND);
+				hud.update(seconds / 60, seconds % 60, score);
+				profiler.end(FrameProfiler.HUD, phase);
+
+				phase = profiler.begin();
+				getWindow().clear(Color.BLACK);
+				profiler.end(FrameProfiler.CLEAR, phase);
+
+				phase = profiler.begin();
+				drawGraphics(getWindow(), accumulator / TICK);
+				profiler.end(FrameProfiler.DRAW, phase);
+
+				phase = profiler.begin();
 				getWindow().display();
+				profiler.end(FrameProfiler.DISPLAY, phase);
+
+				profiler.endFrame();
 
 			} catch (Exception e) {
 				e.printStackTrace();
 				Vector2i temp = getStartTilePos();
-				Vector2f temp2 = new Vector2f(temp.x, temp.y);
-				player.move(temp2);
-				player.setPosition(temp.x, temp.y);
+				player.setLocation(temp.x, temp.y);
+				rememberPlayerPosition();
 				System.out.println("There has been an issue drawing something, moving player back to start! Don't try to glitch out the map!\n\n");
 			}
 		}
 	}
 
+	/**
+	 * Advances the game by one fixed step.
+	 */
+	private void tick() {
+		rememberPlayerPosition();
+		ticks++;
+		effects.tick();
+
+		long phase = profiler.begin();
+		movePlayer();
+		profiler.end(FrameProfiler.MOVE, phase);
+
+		phase = profiler.begin();
+		fog.update(1);
+		profiler.end(FrameProfiler.FOG, phase);
+
+		updateScore((float) ticks / TICKS_PER_SECOND);
+	}
+
 	/**
 	 * When event is performed (e.g - user clicks on the button) Appropriate function
 	 * should be called within this function to handle the event.
@@ -278,6 +318,7 @@ public class GameScene extends Scene {
 					case M:
 						state = !state;
 						musicPlaying(state); break;
+					case F3: profiler.toggleOverlay(); break;
 				}
 				break;
 
@@ -326,36 +367,28 @@ public class GameScene extends Scene {
 		}
 	}
 
-	/**
-	 * Function to detect if the player has moved onto a tile.
-	 */
-	public Tile detectCollision() {
-		//Find the block location from the pixel X&Y
-		int playerX = Math.round(getPlayerX() / blockSize);
-		int playerY = Math.round(getPlayerY() / blockSize);
-
-		//Return the block the player is behind
-		return tileMap[playerX][playerY];
+	private void rememberPlayerPosition() {
+		previousPlayerX = player.getX();
+		previousPlayerY = player.getY();
 	}
 
 	/**
-	 * Function to see what type of block you have collided with and act accordingly.
+	 * Function to see what type of block you are on and act accordingly.
 	 *
-	 * @param reboundDir The direction the avatar should be rebounded.
-	 * @param tile       The tile that has been detected.
+	 * @param tileX, tileY - the tile the avatar's centre is on
 	 */
-	public void detectionHandler(Tile tile, String reboundDir) {
-		switch (tile.getTileType()) {
-			case WALL: reboundPlayer(reboundDir); break; //reboundPlayer(reboundDir); break;
-			case DOOR: closeDoor(tile); break;
+	public void detectionHandler(int tileX, int tileY) {
+		switch (maze.get(tileX, tileY)) {
+			case WALL: break; //Only when a door has closed on the player, who can walk out of it
+			case DOOR: closeDoor(tileX, tileY); break;
 			case START: break;
 			case FINISH:
 				musicPlaying(false);
 				listeningForUserName = true;
 
 				while(listeningForUserName) {
-					drawFinishWindow(getWindow());
-					drawUserName(getWindow());
+					finishOverlay.setUserName(userName);
+					getWindow().draw(finishOverlay);
 					getWindow().display();
 
 					for (Event event : getWindow().pollEvents()) {
@@ -365,6 +398,7 @@ public class GameScene extends Scene {
 
 				}
 				exportToDB();
+				releaseAssets();
 				getWindow().setScene(0);
 				this.setRunning(false);
 			case VOID: break;
@@ -374,87 +408,141 @@ public class GameScene extends Scene {
 				battery.changeChargeLevel(battery.getChargeLevel() + (Battery.MAX - battery.getChargeLevel()));
 				fog.increase();
 				charges++;
-				tile.setTileType(Tile.BlockType.FLOOR);
-				tile.setTexture(tileTexture[1]);
+				maze.set(tileX, tileY, Tile.BlockType.FLOOR);
+				if (CHARGE_RESPAWN_DELAY > 0) {
+					transitions.schedule(tileX, tileY, CHARGE_RESPAWN_DELAY, Tile.BlockType.CHARGE);
+				}
 				break;
 			case FLOOR: voidDetection(); break;
 			default: System.out.println("Please select a defined BlockType.");
 		}
 	}
 
-	/**
-	 * Function to rebound the player the amount of steps defined, given a direction.
-	 *
-	 * @param dir The direction the avatar should be rebounded.
-	 */
-	public void reboundPlayer(String dir) {
-		int reboundStep = blockSize / 2; //Number of steps to rebound the player.
-
-		switch (dir) {
-			case "UP": player.move(0, -reboundStep); break;
-			case "DOWN": player.move(0, reboundStep); break;
-			case "LEFT": player.move(-reboundStep, 0); break;
-			case "RIGHT": player.move(reboundStep, 0); break;
-			default: System.out.println("Please select a direction defined."); break;
-		}
-	}
-
 	/**
 	 * Function to return the X pixels of the player.
 	 */
 	public float getPlayerX() {
-		return player.getPosition().x;
+		return player.getX();
 	}
 
 	/**
 	 * Function to return the Y pixels of the player.
 	 */
 	public float getPlayerY() {
-		return player.getPosition().y;
+		return player.getY();
 	}
 
 	/**
-	 * This function is responsible for drawing graphics on the main window
+	 * This function is responsible for drawing graphics on the main window, as the last tick left them.
 	 *
 	 * @param window - reference to the main window.
 	 */
 	public void drawGraphics(RenderWindow window) {
-		for (int y = 0; y < blockCount; y++) {
-			for (int x = 0; x < blockCount; x++) {
-				if (fog.getView(x, y, player)) {
-					window.draw(tileMap[x][y]);
-				}
-			}
+		drawGraphics(window, 1);
+	}
+
+	/**
+	 * This function is responsible for drawing graphics on the main window
+	 *
+	 * @param window - reference to the main window.
+	 * @param alpha - how far the frame is between the last two ticks, from 0 to 1
+	 */
+	public void drawGraphics(RenderWindow window, float alpha) {
+		drawCalls = 0;
+
+		updateFog();
+
+		/* The player is drawn between where the last two ticks left it, so movement is smooth at any frame rate */
+		float drawX = previousPlayerX + (player.getX() - previousPlayerX) * alpha;
+		float drawY = previousPlayerY + (player.getY() - previousPlayerY) * alpha;
+
+		/* The maze is drawn through the camera, the HUD over the whole window */
+		camera.follow(drawX + blockSize / 2, drawY + blockSize / 2);
+		window.setView(camera.getView());
+		draw(window, tileLayer);
+		drawCalls += Math.max(0, tileLayer.getVisibleChunks() - 1);
+		draw(window, fogMask);
+		player.updateShape(drawX, drawY);
+		draw(window, player);
+
+		window.setView(window.getDefaultView());
+		draw(window, battery);
+		draw(window, musicButton);
+		draw(window, hud);
+		draw(window, profiler);
+	}
+
+	/**
+	 * Moves the fog's window with the player. The mask is only rebuilt when the player has changed tile or
+	 * the fog has changed size.
+	 */
+	private void updateFog() {
+		if (fog.updateView(player.getTileX(), player.getTileY())) {
+			fogMask.rebuild(fog);
 		}
-		window.draw(player);
-		window.draw(battery);
-		window.draw(musicButton);
-		window.draw(txtScore);
-		window.draw(txtTime);
+	}
+
+	/**
+	 * Draws onto the window, counting the draw call.
+	 */
+	private void draw(RenderWindow window, Drawable drawable) {
+		window.draw(drawable);
+		drawCalls++;
+	}
+
+	/**
+	 * Obtains the number of draw calls issued to draw the last frame.
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * Obtains the maze being played. Changing a tile through it also changes what is drawn.
+	 */
+	public MazeGrid getMaze() {
+		return maze;
 	}
 
 	public void movePlayer() {
-		/* Check if the key has been pressed with window edge detection*/
-		if (up && getPlayerY() >= 0) {
-			player.move(0, -1);
-			detectionHandler(detectCollision(), "DOWN");
-			player.updateImageDirection("UP");
-		}
-		else if (down && getPlayerY() <= translateY(blockCount - 1)) {
-			player.move(0, 1);
-			detectionHandler(detectCollision(), "UP");
-			player.updateImageDirection("DOWN");
-		}
-		else if (left && getPlayerX() >= 0) {
-			player.move(-1, 0);
-			detectionHandler(detectCollision(), "RIGHT");
-			player.updateImageDirection("LEFT");
-		}
-		else if (right && getPlayerX() < translateY(blockCount - 1)) {
-			player.move(1, 0);
-			detectionHandler(detectCollision(), "LEFT");
-			player.updateImageDirection("RIGHT");
+		/* Move one tick's worth in the direction pressed. The collider keeps the player inside the maze */
+		float step = PLAYER_SPEED * TICK;
+
+		if (up) stepPlayer(0, -step, "UP");
+		else if (down) stepPlayer(0, step, "DOWN");
+		else if (left) stepPlayer(-step, 0, "LEFT");
+		else if (right) stepPlayer(step, 0, "RIGHT");
+	}
+
+	/**
+	 * Moves the player along one axis, stopping at walls. When a wall stops them, they are slid towards the
+	 * middle of the row or column they are in, so turning into a corridor does not need pixel perfect lining up.
+	 */
+	private void stepPlayer(float dx, float dy, String direction) {
+		float fromX = player.getX();
+		float fromY = player.getY();
+		float size = player.getBoxSize();
+		float x = collider.moveX(fromX, fromY, size, dx);
+		float y = collider.moveY(x, fromY, size, dy);
+
+		boolean blocked = Math.abs(x - fromX) < Math.abs(dx) || Math.abs(y - fromY) < Math.abs(dy);
+		if (blocked) {
+			float centred = (blockSize - size) / 2;
+			float speed = Math.abs(dx + dy);
+			if (dx != 0) {
+				float row = (float) Math.floor((y + size / 2) / blockSize);
+				float slide = Math.max(-speed, Math.min(speed, row * blockSize + centred - y));
+				y = collider.moveY(x, y, size, slide);
+			} else {
+				float column = (float) Math.floor((x + size / 2) / blockSize);
+				float slide = Math.max(-speed, Math.min(speed, column * blockSize + centred - x));
+				x = collider.moveX(x, y, size, slide);
+			}
 		}
+
+		player.setLocation(x, y);
+		detectionHandler(player.getCentreTileX(), player.getCentreTileY());
+		player.updateImageDirection(direction);
 	}
 
 	public Vector2i getStartTilePos() {
@@ -469,9 +557,10 @@ public class GameScene extends Scene {
 		return blockSize;
 	}
 
-	public void updateScore(Clock gameClock) {
-		float gameTime = gameClock.getElapsedTime().asSeconds();
-
+	/**
+	 * @param gameTime - seconds of game time since the level started
+	 */
+	public void updateScore(float gameTime) {
 		if (gameTime == 0) return;
 
 		int score0 = (int) (1000 / gameTime + 100 / ((totalTimeSpentInVoid == 0) ? 1 : totalTimeSpentInVoid));
@@ -483,68 +572,11 @@ public class GameScene extends Scene {
 		}
 	}
 
-	public void closeDoor(Tile door) {
-		Runnable r = () -> {
-			try {
-				Thread.sleep(1000);
-				door.setTexture(tileTexture[0]);
-				door.setTileType(Tile.BlockType.WALL);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		};
-		new Thread(r).start();
-	}
-
-	public void drawFinishWindow(RenderWindow window) {
-		try {
-			float textBackgroundHeight = getWindow().getScreenHeight() / 5;
-			float textBackgroundWidth  = getWindow().getScreenWidth() / 1.25F;
-			float textBackgroundXCord  = getWindow().getScreenWidth() / 2 - (textBackgroundWidth / 2);
-			float textBackgroundYCord  = getWindow().getScreenHeight() / 2  - (textBackgroundHeight / 1.5F);
-
-			Vector2f size = new Vector2f(textBackgroundWidth, textBackgroundHeight);
-			textBackground = new RectangleShape(size);
-
-			Texture backgroundImage = new Texture();
-			backgroundImage.loadFromFile(Paths.get("res/menuGraphics/Wall.png"));
-			textBackground.setTexture(backgroundImage);
-
-			textBackground.setPosition(textBackgroundXCord, textBackgroundYCord);
-
-			Font textFont = new Font();
-			textFont.loadFromFile(Paths.get("res/fonts/Roboto.ttf"));
-
-			float textXCord = getWindow().getScreenWidth() / -4.5F;
-			float textYCord = getWindow().getScreenHeight() / -2.8F;
-
-			int fontSize = getWindow().getScreenWidth() / 14;
-
-			message = new Text("Level Completed!", textFont, fontSize);
-			message.setColor(Color.BLACK);
-			message.setStyle(Text.BOLD);
-			message.setOrigin(textXCord, textYCord);
-
-			message2 = new Text("Enter your username: \n", textFont, fontSize);
-			message2.setColor(Color.BLACK);
-			message2.setStyle(Text.BOLD);
-			message2.setOrigin(textXCord + 35, textYCord - 40);
-
-		} catch (IOException e) {
-			System.err.println("There was a problem loading the finish window.");
-		}
-
-		window.draw(textBackground);
-		window.draw(message);
-		window.draw(message2);
-	}
-
-	public void drawUserName(RenderWindow window) {
-		Text un = new Text(userName, textFontUserInput, fontSizeUserInput);
-		un.setColor(Color.BLACK);
-		un.setStyle(Text.BOLD);
-		un.setOrigin(textXCordUserInput + 35, textYCordUserInput - 130);
-		window.draw(un);
+	/**
+	 * Closes a door a second after the player enters it. Entering it again while it is closing does nothing.
+	 */
+	public void closeDoor(int x, int y) {
+		transitions.schedule(x, y, DOOR_CLOSE_DELAY, Tile.BlockType.WALL, DOOR_REOPEN_DELAY);
 	}
 
 	public void listenForInput(Event event) {
@@ -590,80 +622,67 @@ public class GameScene extends Scene {
 
 	public void exportToDB() {
 		DatabaseConnection upload = new DatabaseConnection();
-		upload.uploadResult(userName, score, currentLevel, txtTime.getString().substring(7));
+		upload.uploadResult(userName, score, currentLevel, hud.getTimeString());
 		upload.clean();
 	}
 
 	public void musicPlaying(boolean state) {
 		if (!state) {
 			music.pause();
+			musicButton.showMusicOn(false);
 			musicButton.setSelected(true);
-			try {
-				musicButton.getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOff.png"));
-				musicButton.getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOffsel.png"));
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 		} else {
+			musicButton.showMusicOn(true);
 			musicButton.setSelected(false);
 			music.play();
-			try {
-				musicButton.getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOn.png"));
-				musicButton.getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOnsel.png"));
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 		}
 	}
 
-	public Vector2i rawPlayerToBlockPos(){
-		int playerPosBlockX = (int)((getPlayerX() + 1) / blockSize);
-		int playerPosBlockY = (int)((getPlayerY() + 1) / blockSize);
-		return new Vector2i(playerPosBlockX, playerPosBlockY);
+	public void releaseAssets() {
+		super.releaseAssets();
+		musicButton.dispose();
+		writeProfile();
 	}
 
-	public boolean isVoid(int x, int y){
-		try {
-			return tileMap[x][y].getTileType() == Tile.BlockType.VOID;
-		} catch (ArrayIndexOutOfBoundsException e) {
-			return false;
-		}
+	public void systemExit() {
+		writeProfile();
+		super.systemExit();
 	}
 
-	public void voidDetection(){
-		Vector2i playerPos = rawPlayerToBlockPos();
-		int voidCount = 0;
-
-
-		for (int i = -1; i <= 1; i++) {
-			for (int j = -1; j <= 1; j++) {
-				if (isVoid(playerPos.x + i, playerPos.y + j)) {
-					voidCount++;
-					voidClockToggled = true;
-					Runnable r = () ->{
-						try {
-							playVoidSound();
-							battery.decreaseChargeLevel(1);
-							Thread.sleep(500);
-							fog.drain();
-						} catch (InterruptedException e) {
-							System.err.println("Something went wrong.");
-						}
-					};
-
-					Thread voidEffect = new Thread(r);
-
-					voidEffect.start();
-				}
-			}
-		}
+	/**
+	 * Saves the frame times of the level, once, when the level is left.
+	 */
+	private void writeProfile() {
+		if (profileWritten || profiler.getFrames() == 0) return;
+		profiler.writeCsv("frame-profile.csv");
+		profileWritten = true;
+	}
 
-		if (voidCount == 0) voidClockToggled = false;
+	public boolean isVoid(int x, int y){
+		return maze.is(x, y, Tile.BlockType.VOID);
+	}
 
-		if (voidClockToggled) {
-			timeExposedToVoid = voidDetectionClock.getElapsedTime().asMilliseconds();
+	/**
+	 * Drains the battery and fog while the player is next to a void. However often the player is found next
+	 * to one, the drain happens at most once every VOID_DRAIN_COOLDOWN ticks, by one for each void around them.
+	 */
+	public void voidDetection(){
+		int voidCount = voidField.getVoidCount(player.getCentreTileX(), player.getCentreTileY());
+
+		if (voidCount > 0) {
+			final int drain = voidCount;
+			effects.trigger("void", VOID_DRAIN_COOLDOWN, () -> {
+				playVoidSound();
+				battery.decreaseChargeLevel(drain);
+				effects.schedule(VOID_FOG_DELAY, () -> {
+					for (int i = 0; i < drain; i++) fog.drain();
+				});
+			});
+
+			if (voidExposureStart < 0) voidExposureStart = ticks;
+			timeExposedToVoid = (ticks - voidExposureStart) * 1000.0 / TICKS_PER_SECOND;
 		} else {
-			voidDetectionClock.restart();
+			voidExposureStart = -1;
 			totalTimeSpentInVoid += timeExposedToVoid;
 			timeExposedToVoid = 0;
 		}
@@ -7,14 +7,12 @@ import org.jsfml.system.Vector2f;
 import org.jsfml.window.event.Event;
 
 import java.io.IOException;
-import java.nio.file.Paths;
 
 public class GridSelectionScene extends Scene {
 
     private Text userLevel;
 	private Background background;
 	private RectangleShape textBackground;
-	private Texture backgroundImage = new Texture();
 
 	public static final int MAX_WIDTH = 30;
 	public static final int MAX_HEIGHT = 30;
@@ -35,8 +33,7 @@ public class GridSelectionScene extends Scene {
         background = new Background(window.getScreenWidth(), window.getScreenHeight(), mainBackground);
 
         //Create Font
-        Font maze = new Font();
-		maze.loadFromFile(Paths.get("res/fonts/Roboto.ttf"));
+        Font maze = acquireFont("res/fonts/Roboto.ttf");
 
         float textBackgroundHeight = window.getScreenHeight() / 5 + 20;
         float textBackgroundWidth  = window.getScreenWidth() / 1.25F;
@@ -53,8 +50,7 @@ public class GridSelectionScene extends Scene {
         textBackground.setPosition(textBackgroundXCord, textBackgroundYCord);
 
 
-        backgroundImage.loadFromFile(Paths.get("res/menuGraphics/Wall.png"));
-        textBackground.setTexture(backgroundImage);
+        textBackground.setTexture(acquireTexture("res/menuGraphics/Wall.png"));
 
         //Create text
         userLevel = new Text("5 X 5", maze, fontSize);
@@ -162,6 +158,7 @@ public class GridSelectionScene extends Scene {
     public void enterPressed() throws Exception {
         try {
             MapMakerScene mapMaker = new MapMakerScene("Map Maker", getWindow(), mapWidth); // mapwidth is number of blocks X
+            releaseAssets();
             getWindow().addScene(mapMaker);
             getWindow().setScene(getWindow().getArrayList().indexOf(mapMaker));
             this.setRunning(false);
@@ -0,0 +1,141 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The score and timer shown at the bottom of the game.
+ *
+ * The last values shown are remembered so the text is only rebuilt and handed to JSFML when a visible digit
+ * changes, which is about once a second instead of every frame. The text is put together in a reused char
+ * buffer, so the only allocation is the String JSFML needs when something has changed.
+ */
+public class Hud implements Drawable {
+
+	private static final char[] TIME_PREFIX = "Time: \t".toCharArray();
+	private static final char[] SCORE_PREFIX = "Score: \t".toCharArray();
+
+	private Text txtScore;
+	private Text txtTime;
+
+	private char[] buffer = new char[32];
+	private int shownMinute = -1;
+	private int shownSecond = -1;
+	private int shownScore = Integer.MIN_VALUE;
+	private String timeString = "0:00";
+
+	private int updates = 0;
+	private int pushes = 0;
+	private long allocatedBytes = 0;
+
+	private com.sun.management.ThreadMXBean allocationCounter;
+
+	public Hud(Text txtScore, Text txtTime) {
+		this.txtScore = txtScore;
+		this.txtTime = txtTime;
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			allocationCounter = (com.sun.management.ThreadMXBean) threads;
+			if (!allocationCounter.isThreadAllocatedMemorySupported()) allocationCounter = null;
+		}
+	}
+
+	/**
+	 * Shows the time and score, touching the JSFML text only for values that have changed.
+	 */
+	public void update(int minute, int second, int score) {
+		long before = allocatedBytes();
+		updates++;
+
+		if (minute != shownMinute || second != shownSecond) {
+			shownMinute = minute;
+			shownSecond = second;
+
+			int length = append(TIME_PREFIX, 0);
+			int timeStart = length;
+			length = appendNumber(minute, length);
+			buffer[length++] = ':';
+			if (second < 10) buffer[length++] = '0';
+			length = appendNumber(second, length);
+
+			timeString = new String(buffer, timeStart, length - timeStart);
+			txtTime.setString(new String(buffer, 0, length));
+			pushes++;
+		}
+
+		if (score != shownScore) {
+			shownScore = score;
+
+			int length = append(SCORE_PREFIX, 0);
+			length = appendNumber(score, length);
+
+			txtScore.setString(new String(buffer, 0, length));
+			pushes++;
+		}
+
+		allocatedBytes += allocatedBytes() - before;
+	}
+
+	/**
+	 * Obtains the time as last shown, without the "Time:" label.
+	 */
+	public String getTimeString() {
+		return timeString;
+	}
+
+	public int getScore() {
+		return shownScore;
+	}
+
+	/**
+	 * Obtains the number of times text has been pushed to JSFML.
+	 */
+	public int getPushes() {
+		return pushes;
+	}
+
+	/**
+	 * Obtains the average bytes allocated by an update, or -1 if the JVM cannot measure it.
+	 */
+	public double getAllocatedBytesPerFrame() {
+		if (allocationCounter == null) return -1;
+		return updates == 0 ? 0 : (double) allocatedBytes / updates;
+	}
+
+	public void draw(RenderTarget target, RenderStates states) {
+		target.draw(txtScore, states);
+		target.draw(txtTime, states);
+	}
+
+	private long allocatedBytes() {
+		return allocationCounter == null ? 0 : allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private int append(char[] text, int at) {
+		System.arraycopy(text, 0, buffer, at, text.length);
+		return at + text.length;
+	}
+
+	/**
+	 * Writes a number into the buffer without going through a String.
+	 */
+	private int appendNumber(int number, int at) {
+		if (number < 0) {
+			buffer[at++] = '-';
+			number = -number;
+		}
+
+		int digits = 1;
+		for (int rest = number / 10; rest > 0; rest /= 10) digits++;
+
+		for (int i = at + digits - 1; i >= at; i--) {
+			buffer[i] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+		return at + digits;
+	}
+
+}
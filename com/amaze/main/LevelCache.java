@@ -0,0 +1,141 @@
+package com.amaze.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of parsed levels, shared by the level menu, the game and the map maker.
+ *
+ * Entries are keyed by level number and remember the modification time of the level files they were parsed
+ * from, so a level that changes on disk is parsed again. The cache is bounded by an estimate of the memory
+ * each parsed level holds rather than by a number of levels.
+ */
+public class LevelCache {
+
+	public static final long DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+	private static final LevelCache shared = new LevelCache(DEFAULT_CAPACITY);
+
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+	private final long capacity;
+	private long usedBytes = 0;
+
+	private int hits = 0;
+	private int misses = 0;
+	private int evictions = 0;
+
+	private static class Entry {
+		final long modified;
+		final LevelReader level;
+		final long bytes;
+
+		Entry(long modified, LevelReader level) {
+			this.modified = modified;
+			this.level = level;
+			this.bytes = estimateSize(level);
+		}
+	}
+
+	/**
+	 * @param capacity the most bytes of parsed levels to hold
+	 */
+	public LevelCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	public static LevelCache getShared() {
+		return shared;
+	}
+
+	/**
+	 * Obtains a parsed level, reading it from disk if it is not cached or has changed since it was cached.
+	 * Levels handed out by the cache are shared, so they must not be reloaded by the caller.
+	 */
+	public LevelReader get(int levelNumber) throws IOException {
+		long modified = lastModified(levelNumber);
+
+		synchronized (this) {
+			Entry entry = entries.get(levelNumber);
+			if (entry != null && entry.modified == modified) {
+				hits++;
+				return entry.level;
+			}
+			misses++;
+		}
+
+		//Parse outside the lock so a slow load does not hold up other lookups
+		LevelReader level = new LevelReader();
+		level.loadMap(levelNumber);
+		put(levelNumber, modified, level);
+		return level;
+	}
+
+	/**
+	 * Stores a level that has just been written to disk so it does not need to be parsed again.
+	 */
+	public void put(int levelNumber, LevelReader level) {
+		put(levelNumber, lastModified(levelNumber), level);
+	}
+
+	private synchronized void put(int levelNumber, long modified, LevelReader level) {
+		Entry old = entries.remove(levelNumber);
+		if (old != null) usedBytes -= old.bytes;
+
+		Entry entry = new Entry(modified, level);
+		if (entry.bytes > capacity) return;
+
+		entries.put(levelNumber, entry);
+		usedBytes += entry.bytes;
+
+		Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+		while (usedBytes > capacity && eldest.hasNext()) {
+			Entry evicted = eldest.next().getValue();
+			if (evicted == entry) break;
+			eldest.remove();
+			usedBytes -= evicted.bytes;
+			evictions++;
+		}
+	}
+
+	public synchronized void invalidate(int levelNumber) {
+		Entry old = entries.remove(levelNumber);
+		if (old != null) usedBytes -= old.bytes;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	public synchronized int getHits() { return hits; }
+
+	public synchronized int getMisses() { return misses; }
+
+	public synchronized int getEvictions() { return evictions; }
+
+	public synchronized int getSize() { return entries.size(); }
+
+	public synchronized long getUsedBytes() { return usedBytes; }
+
+	public long getCapacity() { return capacity; }
+
+	/**
+	 * Obtains the newest modification time of a level's csv and binary files.
+	 */
+	public static long lastModified(int levelNumber) {
+		long text = new File("res/Levels/" + levelNumber + ".txt").lastModified();
+		long binary = BinaryLevelFormat.levelFile(levelNumber).lastModified();
+		return Math.max(text, binary);
+	}
+
+	/**
+	 * Estimates the bytes a parsed level holds: one byte per tile of its grid, plus the objects around it.
+	 */
+	static long estimateSize(LevelReader level) {
+		return 128 + (long) level.getWidth() * level.getHeight();
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.amaze.main;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts the csv levels in res/Levels into the binary level format.
+ *
+ * Run with no arguments to convert every level, or pass level numbers to convert only those.
+ */
+public class LevelConverter {
+
+	public static void main(String[] args) {
+		if (args.length > 0) {
+			for (String arg : args) convert(Integer.parseInt(arg));
+			return;
+		}
+
+		File[] files = new File("res/Levels").listFiles();
+		for (File file : files != null ? files : new File[0]) {
+			String name = file.getName();
+			if (file.isFile() && name.endsWith(".txt") && !name.startsWith(".")) {
+				convert(Integer.parseInt(name.substring(0, name.length() - 4)));
+			}
+		}
+	}
+
+	/**
+	 * Writes the binary form of a csv level.
+	 */
+	public static void convert(int levelNumber) {
+		try {
+			LevelReader reader = new LevelReader();
+			reader.loadTextMap(levelNumber);
+
+			File binary = BinaryLevelFormat.levelFile(levelNumber);
+			BinaryLevelFormat.write(binary, reader.getGrid().getCells(), reader.getWidth(), reader.getHeight());
+			System.out.println("Converted level " + levelNumber + " (" + reader.getWidth() + " x " + reader.getHeight() + ")");
+		} catch (IOException e) {
+			System.err.println("Could not convert level " + levelNumber + ": " + e.getMessage());
+		}
+	}
+
+}
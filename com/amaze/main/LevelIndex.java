@@ -0,0 +1,224 @@
+package com.amaze.main;
+
+import java.io.*;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent index of the installed levels, stored in res/levels.index
+ *
+ * Each line records a level's number, size, tile counts, a hash of its tiles and the modification time of its
+ * files, so the number of levels, the next free level number and the stats of a level can be looked up without
+ * scanning res/Levels or parsing anything. The index is checked against the modification time of the folder
+ * and only rebuilt when levels have been added or removed behind its back; levels exported by the map maker
+ * are added to it directly.
+ */
+public class LevelIndex {
+
+	public static final String LEVEL_FOLDER = "res/Levels";
+	public static final String INDEX_FILE = "res/levels.index";
+	public static final String HEADER = "# aMaze level index v1";
+
+	private static LevelIndex shared;
+
+	private final File folder;
+	private final File file;
+	private final TreeMap<Integer, Entry> entries = new TreeMap<>();
+	private long folderModified;
+
+	/**
+	 * What the index knows about a single level.
+	 */
+	public static class Entry {
+
+		private final int levelNumber;
+		private final int width;
+		private final int height;
+		private final int[] tileCounts;
+		private final long hash;
+		private final long modified;
+
+		Entry(int levelNumber, int width, int height, int[] tileCounts, long hash, long modified) {
+			this.levelNumber = levelNumber;
+			this.width = width;
+			this.height = height;
+			this.tileCounts = tileCounts;
+			this.hash = hash;
+			this.modified = modified;
+		}
+
+		public int getLevelNumber() { return levelNumber; }
+
+		public int getWidth() { return width; }
+
+		public int getHeight() { return height; }
+
+		public int getTileCount(Tile.BlockType type) { return tileCounts[type.ordinal()]; }
+
+		public long getHash() { return hash; }
+
+		public long getModified() { return modified; }
+
+	}
+
+	public LevelIndex(File folder, File file) {
+		this.folder = folder;
+		this.file = file;
+	}
+
+	/**
+	 * Obtains the index of res/Levels, loading it (and rebuilding it if it is stale) on first use.
+	 */
+	public static synchronized LevelIndex getShared() {
+		if (shared == null) {
+			shared = new LevelIndex(new File(LEVEL_FOLDER), new File(INDEX_FILE));
+			shared.open();
+		}
+		return shared;
+	}
+
+	/**
+	 * Reads the index file, rebuilding it if it is missing, unreadable or older than the level folder.
+	 */
+	public synchronized void open() {
+		boolean stale;
+		try {
+			stale = !read() || folderModified != folder.lastModified();
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Level index is unreadable, rebuilding it");
+			stale = true;
+		}
+		if (stale) rebuild();
+	}
+
+	/**
+	 * Rescans res/Levels. Levels whose files have not changed keep their entries, anything else is parsed again.
+	 */
+	public synchronized void rebuild() {
+		TreeMap<Integer, Entry> old = new TreeMap<>(entries);
+		entries.clear();
+		folderModified = folder.lastModified();
+
+		File[] files = folder.listFiles();
+		for (File f : files != null ? files : new File[0]) {
+			String name = f.getName();
+			if (!f.isFile() || name.startsWith(".") || !name.endsWith(".txt")) continue;
+
+			int levelNumber;
+			try {
+				levelNumber = Integer.parseInt(name.substring(0, name.length() - 4));
+			} catch (NumberFormatException e) {
+				continue;
+			}
+
+			Entry entry = old.get(levelNumber);
+			if (entry == null || entry.modified != LevelCache.lastModified(levelNumber)) {
+				entry = index(levelNumber);
+			}
+			if (entry != null) entries.put(levelNumber, entry);
+		}
+		save();
+	}
+
+	/**
+	 * Records a level that has just been written, such as one exported by the map maker.
+	 */
+	public synchronized void update(int levelNumber, LevelReader level) {
+		entries.put(levelNumber, createEntry(levelNumber, level));
+		folderModified = folder.lastModified();
+		save();
+	}
+
+	/**
+	 * Obtains the entry of a level, re-indexing it first if its files have changed since it was indexed.
+	 * @return the entry, or null if there is no such level
+	 */
+	public synchronized Entry getEntry(int levelNumber) {
+		Entry entry = entries.get(levelNumber);
+		if (entry != null && entry.modified != LevelCache.lastModified(levelNumber)) {
+			entry = index(levelNumber);
+			if (entry == null) entries.remove(levelNumber);
+			else entries.put(levelNumber, entry);
+			save();
+		}
+		return entry;
+	}
+
+	public synchronized int getLevelCount() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the highest level number installed, or 0 if there are none
+	 */
+	public synchronized int getHighestLevel() {
+		return entries.isEmpty() ? 0 : entries.lastKey();
+	}
+
+	public synchronized int getNextFreeLevel() {
+		return getHighestLevel() + 1;
+	}
+
+	private Entry index(int levelNumber) {
+		try {
+			return createEntry(levelNumber, LevelCache.getShared().get(levelNumber));
+		} catch (IOException e) {
+			System.out.println("Cannot index level " + levelNumber);
+			return null;
+		}
+	}
+
+	private static Entry createEntry(int levelNumber, LevelReader level) {
+		int[] counts = new int[Tile.BlockType.values().length];
+		for (Tile.BlockType type : Tile.BlockType.values()) {
+			counts[type.ordinal()] = level.getTileCount(type);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(level.getGrid().getCells(), 0, level.getWidth() * level.getHeight());
+
+		return new Entry(levelNumber, level.getWidth(), level.getHeight(), counts, crc.getValue(), LevelCache.lastModified(levelNumber));
+	}
+
+	private boolean read() throws IOException {
+		if (!file.isFile()) return false;
+
+		entries.clear();
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			if (!HEADER.equals(reader.readLine())) return false;
+			folderModified = Long.parseLong(reader.readLine());
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) continue;
+
+				String[] fields = line.split(",");
+				int[] counts = new int[Tile.BlockType.values().length];
+				for (int i = 0; i < counts.length; i++) {
+					counts[i] = Integer.parseInt(fields[3 + i]);
+				}
+
+				int levelNumber = Integer.parseInt(fields[0]);
+				entries.put(levelNumber, new Entry(levelNumber, Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), counts,
+						Long.parseLong(fields[3 + counts.length], 16), Long.parseLong(fields[4 + counts.length])));
+			}
+		}
+		return true;
+	}
+
+	private void save() {
+		try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+			writer.println(HEADER);
+			writer.println(folderModified);
+
+			for (Entry entry : entries.values()) {
+				writer.print(entry.levelNumber + "," + entry.width + "," + entry.height + ",");
+				for (int count : entry.tileCounts) writer.print(count + ",");
+				writer.println(Long.toHexString(entry.hash) + "," + entry.modified);
+			}
+		} catch (IOException e) {
+			System.err.println("Could not save the level index");
+		}
+	}
+
+}
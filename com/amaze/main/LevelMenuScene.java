@@ -5,18 +5,13 @@ import org.jsfml.graphics.*;
 import org.jsfml.system.Vector2f;
 import org.jsfml.window.event.Event;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 
 public class LevelMenuScene extends Scene {
 
     private Text userLevel;
 	private RectangleShape textBackground;
-    private Texture backgroundImage = new Texture();
-    private Tile[][] tileMap;                           //Used for displaying map in background
-    private int blocks;
+    private TileLayer background;                       //Used for displaying map in background
 
     private int numberOfVoids;
     private int numberOfCharges;
@@ -30,16 +25,15 @@ public class LevelMenuScene extends Scene {
     private Music music;
 
     private RectangleShape edgeFrame = new RectangleShape();
-
-	private ArrayList<String> results = new ArrayList<>();
+    private LevelPrefetcher prefetcher;
 
 	private int userLevelNumber = 1;
+	private int shownLevelNumber;                       //Level currently shown in the background
 
 	public static final int MIN_LEVEL = 1;
 
     public LevelMenuScene(String sceneTitle, Window window, Music music) throws IOException {
         super(sceneTitle, window);
-        blocks = 0;
 
         //Reference Music
         this.music = music;
@@ -48,10 +42,8 @@ public class LevelMenuScene extends Scene {
 		new Background(window.getScreenWidth(), window.getScreenHeight());
 
         //Create Font
-        Font maze = new Font();
-        Font arial = new Font();
-		maze.loadFromFile(Paths.get("res/fonts/Roboto.ttf"));
-		arial.loadFromFile(Paths.get("res/fonts/Roboto.ttf"));
+        Font maze = acquireFont("res/fonts/Roboto.ttf");
+        Font arial = maze;
 
         //Setting size of background shader (white part)
         Vector2f size = new Vector2f(window.getScreenWidth(), window.getScreenHeight());
@@ -59,8 +51,7 @@ public class LevelMenuScene extends Scene {
         textBackground.setPosition(0,0);
 
         //Loading of Background Image for Text box
-        backgroundImage.loadFromFile(Paths.get("res/menuGraphics/Wall.png"));
-        textBackground.setTexture(backgroundImage);
+        textBackground.setTexture(acquireTexture("res/menuGraphics/Wall.png"));
 
         //Create text
         int fontSize = window.getScreenWidth() / 4;
@@ -69,6 +60,16 @@ public class LevelMenuScene extends Scene {
         userLevel.setStyle(Text.BOLD);
         userLevel.setOrigin((-(window.getScreenWidth()/2.3F) + (fontSize * 1.5F)), -(window.getScreenHeight()/4) + fontSize);
 
+        edgeFrame.setSize(new Vector2f(getWindow().getScreenWidth(), getWindow().getScreenHeight()));
+        edgeFrame.setPosition(0,0);
+
+        try{
+            edgeFrame.setTexture(acquireTexture("res/images/frame.png"));
+        }catch (IOException e){
+            System.out.println("Problem loading edge frame");
+        }
+
+        prefetcher = new LevelPrefetcher(window.getScreenWidth(), window.getScreenHeight());
         changeBackground(userLevelNumber);
 
         walls = new Text("Walls:    ", arial, 30);
@@ -94,17 +95,6 @@ public class LevelMenuScene extends Scene {
         doors.setColor(Color.BLACK);
         doors.setStyle(Text.BOLD);
         doors.setOrigin((-(window.getScreenWidth()/2) + (fontSize * 1.85F))-300, -(window.getScreenHeight()/1.2F) + 1.2F*fontSize -190);
-
-        //Following set of codes adds all the files to the located in Levels folder to results arrayList
-        File[] files = new File("res/Levels").listFiles();
-
-        for(File file: files != null ? files : new File[0]) {
-            if(file.isFile()) {
-                if(!file.getName().startsWith(".")){
-                    results.add(file.getName());
-                }
-            }
-        }
     }
 
     /**
@@ -114,10 +104,12 @@ public class LevelMenuScene extends Scene {
      */
 
     public void arrowKeyUp() {
-        if(userLevelNumber < results.size() - 1) {
+        int highestLevel = LevelIndex.getShared().getHighestLevel();
+
+        if(userLevelNumber < highestLevel - 1) {
             userLevelNumber++;
         } else {
-            userLevelNumber = results.size();
+            userLevelNumber = highestLevel;
         }
         userLevel.setString("Level " + userLevelNumber);
         changeBackground(userLevelNumber);
@@ -156,7 +148,10 @@ public class LevelMenuScene extends Scene {
                 switch (event.asKeyEvent().key) {
                     case UP: arrowKeyUp(); break;
                     case DOWN: arrowKeyDown(); break;
-                    case ESCAPE: exitScene(this); break;
+                    case ESCAPE:
+                        prefetcher.cancelAll();
+                        exitScene(this);
+                        break;
                     case RETURN:
                         try {
                             enterPressed();
@@ -188,7 +183,10 @@ public class LevelMenuScene extends Scene {
                 switch (event.asJoystickButtonEvent().button) {
                     case 1: arrowKeyDown();break;
                     case 3: arrowKeyUp();break;
-                    case 12: exitScene(this); break;
+                    case 12:
+                        prefetcher.cancelAll();
+                        exitScene(this);
+                        break;
                     case 13:
                         try {
                             enterPressed();
@@ -207,13 +205,14 @@ public class LevelMenuScene extends Scene {
      * Based on the button, a specific function will be invoked.
      */
     public void enterPressed() throws Exception {
-        LevelReader level = new LevelReader();
-        level.loadMap(getUserLevelNumber());
+        prefetcher.cancelAll();
+        LevelReader level = LevelCache.getShared().get(getUserLevelNumber());
 
-		Driver.BLOCK_SIZE = Driver.WINDOW_SIZE / level.getSizeOfMaze();
-        GameScene game = new GameScene("Game", getWindow(), level.getSizeOfMaze(), Driver.BLOCK_SIZE, level.getLevel(), userLevelNumber);
+		Driver.BLOCK_SIZE = Math.max(Driver.MIN_BLOCK_SIZE, Driver.WINDOW_SIZE / level.getSizeOfMaze());
+        GameScene game = new GameScene("Game", getWindow(), Driver.BLOCK_SIZE, level.getGrid(), userLevelNumber);
 
         music.stop();
+        releaseAssets();
 		getWindow().addScene(game);
 		getWindow().getScene(getWindow().getArrayList().indexOf(game)).display();
         this.setRunning(false);
@@ -222,11 +221,7 @@ public class LevelMenuScene extends Scene {
 	public int getUserLevelNumber() { return userLevelNumber; }
 
     public void drawGraphics(RenderWindow window) {
-        for (int j = 0; j < blocks; j++) {
-            for (int i = 0; i < blocks; i++) {
-                window.draw(tileMap[i][j]);
-            }
-        }
+        if (background != null) window.draw(background);
         window.draw(textBackground);
         window.draw(edgeFrame);
         window.draw(userLevel);
@@ -236,63 +231,33 @@ public class LevelMenuScene extends Scene {
         window.draw(doors);
     }
 
+    /**
+     * Shows a level in the background along with its tile counts, which are looked up in the level index.
+     * The preview is normally ready already because it was prefetched while the previous level was shown;
+     * the neighbours of this level are then prefetched in turn.
+     */
     public void changeBackground(int levelNumber) {
-        Tile.BlockType[][] tempTiles;   //Holds reference to newly loaded tile map of the types
-
-        /* Cache textures before we start using them in order to increase performance */
-        Texture tileTexture[] = new Texture[7];
-        for (int i = 0; i < tileTexture.length; i++) {
-            tileTexture[i] = new Texture();
-
-            try {
-                tileTexture[i].loadFromFile(Paths.get("res/images/" + Tile.BlockType.values()[i].toString().toLowerCase() + ".png"));
-            } catch (IOException e) {
-                System.out.println("Error loading tile image for menu background");
-            }
-        }
+        LevelPreview preview;
 
-        /* Load Level from File according to number */
-        LevelReader backgroundLevelLoader = new LevelReader();
+        if (background != null && levelNumber == shownLevelNumber) return;
 
         try {
-            backgroundLevelLoader.loadMap(levelNumber);
-        } catch (IOException e) {
+            preview = prefetcher.take(levelNumber);
+        } catch (Exception e) {
             System.out.println("Cannot load level " + levelNumber);
+            return;
         }
 
-        /* Load stored 2d map */
-        tempTiles = backgroundLevelLoader.getLevel();
-
-        /* Workout maze sizings */
-        blocks = backgroundLevelLoader.getSizeOfMaze();
-
-        int blockSizeX = getWindow().getScreenWidth() / blocks;
-        int blockSizeY = getWindow().getScreenHeight() / blocks;
-
-		tileMap = new Tile[blocks][blocks];
-        for (int j = 0; j < blocks; j++) {
-            for (int i = 0; i < blocks; i++) {
-                tileMap[i][j] = new Tile(blockSizeX * i, blockSizeY * j, blockSizeX, blockSizeY, tempTiles[i][j], tileTexture);
-            }
-        }
-
-        edgeFrame.setSize(new Vector2f(getWindow().getScreenWidth(), getWindow().getScreenHeight()));
-        edgeFrame.setPosition(0,0);
-        Texture edgeFrameTexture = new Texture();
-
-        try{
-            edgeFrameTexture.loadFromFile(Paths.get("res/images/frame.png"));
-        }catch (IOException e){
-            System.out.println("Problem loading edge frame");
-        }
+        shownLevelNumber = levelNumber;
+        background = new TileLayer(preview.getTiles(), preview.getBlockSize());
 
-        edgeFrameTexture.setSmooth(true);
-        edgeFrame.setTexture(edgeFrameTexture);
+        LevelIndex.Entry entry = LevelIndex.getShared().getEntry(levelNumber);
+        numberOfWalls = entry == null ? 0 : entry.getTileCount(Tile.BlockType.WALL);
+        numberOfCharges = entry == null ? 0 : entry.getTileCount(Tile.BlockType.CHARGE);
+        numberOfDoors = entry == null ? 0 : entry.getTileCount(Tile.BlockType.DOOR);
+        numberOfVoids = entry == null ? 0 : entry.getTileCount(Tile.BlockType.VOID);
 
-        numberOfWalls = backgroundLevelLoader.getWallAmount();
-        numberOfCharges = backgroundLevelLoader.getChargeAmount();
-        numberOfDoors = backgroundLevelLoader.getDoorAmount();
-        numberOfVoids = backgroundLevelLoader.getVoidAmount();
+        prefetcher.prefetchAround(levelNumber, MIN_LEVEL, LevelIndex.getShared().getHighestLevel());
     }
 
 }
@@ -0,0 +1,91 @@
+package com.amaze.main;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the previews of the levels either side of the one shown in the level menu on background threads,
+ * so scrolling to them can swap in a ready preview instead of reading the level on the render thread.
+ */
+public class LevelPrefetcher {
+
+	public static final int WORKERS = 2;
+
+	private static final ExecutorService pool = Executors.newFixedThreadPool(WORKERS, r -> {
+		Thread worker = new Thread(r, "Level prefetch");
+		worker.setDaemon(true);
+		return worker;
+	});
+
+	private final Map<Integer, Future<LevelPreview>> pending = new HashMap<>();
+
+	private int width;
+	private int height;
+
+	/**
+	 * @param width - width of the area previews are drawn in
+	 * @param height - height of the area previews are drawn in
+	 */
+	public LevelPrefetcher(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Starts loading the neighbours of a level and cancels loads that are no longer next to it.
+	 * @param levelNumber - the level now being shown
+	 * @param minLevel - lowest level number that exists
+	 * @param maxLevel - highest level number that exists
+	 */
+	public void prefetchAround(int levelNumber, int minLevel, int maxLevel) {
+		Iterator<Map.Entry<Integer, Future<LevelPreview>>> it = pending.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, Future<LevelPreview>> entry = it.next();
+			if (Math.abs(entry.getKey() - levelNumber) > 1) {
+				entry.getValue().cancel(true);
+				it.remove();
+			}
+		}
+
+		for (int neighbour = levelNumber - 1; neighbour <= levelNumber + 1; neighbour += 2) {
+			if (neighbour < minLevel || neighbour > maxLevel || pending.containsKey(neighbour)) continue;
+
+			final int level = neighbour;
+			pending.put(level, pool.submit(() -> LevelPreview.build(level, width, height)));
+		}
+	}
+
+	/**
+	 * Obtains the preview of a level. A finished prefetch is returned straight away, one still in progress
+	 * is waited for and anything else is built on the calling thread.
+	 */
+	public LevelPreview take(int levelNumber) throws Exception {
+		Future<LevelPreview> future = pending.remove(levelNumber);
+
+		if (future != null) {
+			try {
+				return future.get();
+			} catch (CancellationException | ExecutionException e) {
+				System.out.println("Prefetch of level " + levelNumber + " failed, loading it again");
+			}
+		}
+		return LevelPreview.build(levelNumber, width, height);
+	}
+
+	/**
+	 * Cancels every outstanding load, used when the level menu is left.
+	 */
+	public void cancelAll() {
+		for (Future<LevelPreview> future : pending.values()) {
+			future.cancel(true);
+		}
+		pending.clear();
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.amaze.main;
+
+import java.io.IOException;
+
+/**
+ * Holds the tiles the level menu shows in its background for a level, sized to fill it. Its tile counts are
+ * looked up in the LevelIndex, so the parsed level is not kept.
+ *
+ * A level of more than PREVIEW_TILES tiles a side is shown downsampled, one tile from every block of tiles, so a
+ * big generated level costs no more to keep and to draw than a small one. The preview only holds the tiles; the
+ * menu draws them through a TileLayer, which has to be created on the render thread.
+ */
+public class LevelPreview {
+
+	public static final int PREVIEW_TILES = 60;        //Most tiles shown along each side of the background
+
+	private int levelNumber;
+	private MazeGrid tiles;
+	private int blockSize;
+
+	/**
+	 * Parses a level (through the shared LevelCache) and picks the tiles to show and their size.
+	 * Stops early with an InterruptedException if the thread is interrupted, so stale loads can be cancelled.
+	 *
+	 * @param width - width of the area the preview is drawn in
+	 * @param height - height of the area the preview is drawn in
+	 */
+	public static LevelPreview build(int levelNumber, int width, int height) throws IOException, InterruptedException {
+		LevelPreview preview = new LevelPreview();
+		preview.levelNumber = levelNumber;
+		LevelReader level = LevelCache.getShared().get(levelNumber);
+
+		MazeGrid grid = level.getGrid();
+		int blocks = level.getSizeOfMaze();
+		int shown = Math.min(blocks, PREVIEW_TILES);
+
+		//Tiles are square, so they are sized to cover the longer side and run off the shorter one
+		preview.blockSize = Math.max(1, (Math.max(width, height) + shown - 1) / shown);
+
+		preview.tiles = new MazeGrid(shown, shown);
+		for (int j = 0; j < shown; j++) {
+			if (Thread.interrupted()) throw new InterruptedException();
+
+			int y = (int) ((long) j * blocks / shown);
+			for (int i = 0; i < shown; i++) {
+				preview.tiles.set(i, j, grid.get((int) ((long) i * blocks / shown), y));
+			}
+		}
+		return preview;
+	}
+
+	public int getLevelNumber() { return levelNumber; }
+
+	/**
+	 * Obtains the tiles to show, at most PREVIEW_TILES along each side.
+	 */
+	public MazeGrid getTiles() { return tiles; }
+
+	/**
+	 * Obtains the size to draw each of the tiles at, in pixels.
+	 */
+	public int getBlockSize() { return blockSize; }
+
+}
@@ -1,118 +1,199 @@
 package com.amaze.main;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 /**
- *Reads a text file with a csv type format into a BlockType 2D array (currently 5 x 5)
+ *Reads a text file with a csv type format into a MazeGrid.
+ *
+ * The file is read in a single pass straight out of a byte buffer. Tokens are recognised by their first
+ * character and length, so no String is created per tile, and the tile counts are gathered in the same pass.
  */
 public class LevelReader {
 
-    private Tile.BlockType[][] level;//Change this for larger maps
-    private int sizeOfMaze;
-
-    private int voidAmount = 0;
-    private int chargeAmount = 0;
-    private int wallAmount = 0;
-	private int doorAmount = 0;
+    private static final Tile.BlockType[] BLOCK_TYPES = Tile.BlockType.values();
 
+    private MazeGrid grid;
+    private int sizeOfMaze;
+    private int width;
+    private int height;
 
 	/**
-	 * Converts string to BlockType form. If the string is invalid, type PATH will be returned, also counts
-     * the amount of each type of tile excluding START and FINISH
+	 * Converts string to BlockType form. If the string is invalid, type WALL will be returned
 	 */
     public Tile.BlockType stringToBlockType(String blockType) {
-        if (blockType.equals("START")) return Tile.BlockType.START;
-        if (blockType.equals("FINISH")) return Tile.BlockType.FINISH;
-        if (blockType.equals("DOOR")) {
-            doorAmount++;
-            return Tile.BlockType.DOOR;
-        }
-        if (blockType.equals("WALL")) {
-            wallAmount++;
+        try {
+            return Tile.BlockType.valueOf(blockType);
+        } catch (IllegalArgumentException e) {
             return Tile.BlockType.WALL;
         }
-        if (blockType.equals("VOID")) {
-            voidAmount++;
-            return Tile.BlockType.VOID;
-        }
-        if (blockType.equals("CHARGE")) {
-            chargeAmount++;
-            return Tile.BlockType.CHARGE;
-        }
-        if (blockType.equals("FLOOR")) {
-			return Tile.BlockType.FLOOR;
-        }
-
-        return Tile.BlockType.WALL;
     }
 
-    public Tile.BlockType[][] getLevel() {
-        return level;
+    /**
+     * Obtains the loaded level. It may be shared through the LevelCache, so anything that changes tiles
+     * should work on a copy.
+     */
+    public MazeGrid getGrid() {
+        return grid;
     }
 
     public int getSizeOfMaze() {
         return sizeOfMaze;
     }
 
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Loads a level by number. The binary form is used when it is present and at least as new as the csv.
+     */
     public void loadMap(int levelNumber) throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-        int i;
-        int x = 0;
-        int y = 0;
-        int currentlyReadChar = 0;
-        sizeOfMaze = 0;
-
-        //Open up file
-        InputStream in = new FileInputStream(new File("res/Levels/" + levelNumber + ".txt"));
-        Reader reader = new InputStreamReader(in);
-
-        //Read map size
-        while (currentlyReadChar != 10) {
-            currentlyReadChar = reader.read();
-            if (currentlyReadChar == 44) sizeOfMaze++;
+        File file = new File("res/Levels/" + levelNumber + ".txt");
+        File binary = BinaryLevelFormat.levelFile(levelNumber);
+
+        if (binary.isFile() && binary.lastModified() >= file.lastModified()) {
+            loadBinary(BinaryLevelFormat.map(binary));
+        } else {
+            loadTextMap(levelNumber);
         }
+    }
+
+    /**
+     * Loads the csv form of a level, ignoring any binary form.
+     */
+    public void loadTextMap(int levelNumber) throws IOException {
+        File file = new File("res/Levels/" + levelNumber + ".txt");
+        loadMap(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    }
 
-        //Clear the reader
-        reader.close();
-        in = new FileInputStream(new File("res/Levels/" + levelNumber + ".txt"));
-        reader = new InputStreamReader(in);
-
-        //Initialise Level
-        level = new Tile.BlockType[sizeOfMaze][sizeOfMaze];
-
-		// Reads all of the text file
-        while ((i = reader.read()) != -1) {
-            if (Character.toString(((char) i)).equals(",")) {
-                level[y][x] = stringToBlockType(stringBuilder.toString());
-                stringBuilder.setLength(0); // empty StringBuilder
-
-				//If length of first line == max
-                if (++y == level[0].length) {
-                    y = 0;
-                    x++;
-                    // goes to next row in the 2D Array
-                }
-            } else if (!(Character.toString(((char) i)).equals("\n"))) {
-                stringBuilder.append((char) i);
+    /**
+     * Loads a level in the binary format. The tiles are unpacked directly from the buffer, so a mapped
+     * file is never copied, and the tile counts in the header are checked against them. If the level is
+     * not valid the previously loaded level is kept.
+     */
+    public void loadBinary(ByteBuffer buffer) throws IOException {
+        BinaryLevelFormat.checkHeader(buffer);
+
+        int binaryWidth = BinaryLevelFormat.getWidth(buffer);
+        int binaryHeight = BinaryLevelFormat.getHeight(buffer);
+        if ((long) binaryWidth * binaryHeight > Integer.MAX_VALUE) throw new IOException("Binary level is too big");
+
+        byte[] tiles = new byte[binaryWidth * binaryHeight];
+        BinaryLevelFormat.unpack(buffer, tiles);
+        MazeGrid binaryGrid;
+        try {
+            binaryGrid = new MazeGrid(tiles, binaryWidth, binaryHeight);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Binary level is corrupt: " + e.getMessage());
+        }
+
+        for (int i = 0; i < BLOCK_TYPES.length; i++) {
+            if (binaryGrid.getCount(BLOCK_TYPES[i]) != BinaryLevelFormat.getTileCount(buffer, i)) {
+                throw new IOException("Tile counts in the header do not match the tiles");
+            }
+        }
+
+        grid = binaryGrid;
+        width = binaryWidth;
+        height = binaryHeight;
+        sizeOfMaze = width;
+    }
+
+    /**
+     * Parses a level from the buffer's position up to its limit. The buffer's position is not changed.
+     * @param buffer the csv level, one row per line with every tile followed by a comma
+     */
+    public void loadMap(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int end = buffer.limit();
+
+        //Unknown tokens become WALL whatever their length, so the shortest a tile can be is one character and its comma
+        byte[] tiles = new byte[(end - start) / 2 + 1];
+        int count = 0;
+        int rowWidth = 0;
+
+        int tokenStart = -1;
+        for (int i = start; i < end; i++) {
+            byte c = buffer.get(i);
+
+            if (c == ',') {
+                if (tokenStart < 0) throw new IOException("Empty tile at byte " + i);
+                int type = parseToken(buffer.get(tokenStart), i - tokenStart);
+                tiles[count++] = (byte) type;
+                tokenStart = -1;
+            } else if (c == '\n') {
+                if (rowWidth == 0) rowWidth = count;
+                tokenStart = -1;
+            } else if (c != '\r' && c != ' ' && tokenStart < 0) {
+                tokenStart = i;
             }
         }
+
+        if (rowWidth == 0) rowWidth = count;
+        if (count == 0 || count % rowWidth != 0) throw new IOException("Level is not rectangular");
+
+        width = rowWidth;
+        height = count / rowWidth;
+        sizeOfMaze = width;
+        grid = new MazeGrid((tiles.length == count) ? tiles : Arrays.copyOf(tiles, count), width, height);
+    }
+
+    /**
+     * Takes on a level that has been built in memory, such as one just exported by the map maker.
+     */
+    public void loadGrid(MazeGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        sizeOfMaze = width;
+    }
+
+    /**
+     * Identifies a tile token from its first character and length. Unknown tokens become WALL.
+     */
+    private static int parseToken(byte first, int length) {
+        switch (first) {
+            case 'W': if (length == 4) return Tile.BlockType.WALL.ordinal(); break;
+            case 'D': if (length == 4) return Tile.BlockType.DOOR.ordinal(); break;
+            case 'V': if (length == 4) return Tile.BlockType.VOID.ordinal(); break;
+            case 'S': if (length == 5) return Tile.BlockType.START.ordinal(); break;
+            case 'C': if (length == 6) return Tile.BlockType.CHARGE.ordinal(); break;
+            case 'F':
+                if (length == 5) return Tile.BlockType.FLOOR.ordinal();
+                if (length == 6) return Tile.BlockType.FINISH.ordinal();
+                break;
+        }
+        return Tile.BlockType.WALL.ordinal();
+    }
+
+    /**
+     * Obtains the number of tiles of the given type in the loaded level.
+     */
+    public int getTileCount(Tile.BlockType type) {
+        return grid.getCount(type);
     }
 
     public int getDoorAmount() {
-        return doorAmount;
+        return grid.getCount(Tile.BlockType.DOOR);
     }
 
     public int getVoidAmount() {
-        return voidAmount;
+        return grid.getCount(Tile.BlockType.VOID);
     }
 
     public int getChargeAmount() {
-        return chargeAmount;
+        return grid.getCount(Tile.BlockType.CHARGE);
     }
 
     public int getWallAmount() {
-        return wallAmount;
+        return grid.getCount(Tile.BlockType.WALL);
     }
 
 }
-
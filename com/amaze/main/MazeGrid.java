@@ -0,0 +1,150 @@
+package com.amaze.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The tiles of a maze, one byte per tile.
+ *
+ * Each byte is the ordinal of the tile's BlockType, stored row-major (index = y * width + x). This is the one
+ * copy of a maze's state: the level reader fills it, the game and the map maker change it, and anything that
+ * draws tiles is a Listener that follows it rather than holding tiles of its own. The number of tiles of each
+ * type is kept up to date as tiles change.
+ */
+public class MazeGrid {
+
+	private static final Tile.BlockType[] BLOCK_TYPES = Tile.BlockType.values();
+
+	/**
+	 * Told about every tile that changes type.
+	 */
+	public interface Listener {
+		void tileChanged(int x, int y, Tile.BlockType from, Tile.BlockType to);
+	}
+
+	private final int width;
+	private final int height;
+	private final byte[] cells;
+	private final int[] counts = new int[BLOCK_TYPES.length];
+
+	private ArrayList<Listener> listeners = new ArrayList<>();
+
+	/**
+	 * Creates a maze of walls.
+	 */
+	public MazeGrid(int width, int height) {
+		this(new byte[width * height], width, height);
+	}
+
+	/**
+	 * Wraps tile ordinals, without copying them.
+	 * @param cells - tile ordinals, row-major
+	 */
+	public MazeGrid(byte[] cells, int width, int height) {
+		if (width <= 0 || height <= 0 || cells.length < width * height) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " maze needs " + width * height + " tiles, not " + cells.length);
+		}
+		this.width = width;
+		this.height = height;
+		this.cells = cells;
+
+		for (int i = 0; i < width * height; i++) {
+			if (cells[i] < 0 || cells[i] >= BLOCK_TYPES.length) {
+				throw new IllegalArgumentException("Unknown tile " + cells[i] + " at " + i % width + "," + i / width);
+			}
+			counts[cells[i]]++;
+		}
+	}
+
+	/**
+	 * Creates a copy of the tiles, without the listeners.
+	 */
+	public MazeGrid copy() {
+		return new MazeGrid(Arrays.copyOf(cells, width * height), width, height);
+	}
+
+	public int getWidth() { return width; }
+
+	public int getHeight() { return height; }
+
+	public boolean isInside(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+
+	/**
+	 * Obtains the type of a tile.
+	 * @throws IndexOutOfBoundsException if the tile is outside the maze
+	 */
+	public Tile.BlockType get(int x, int y) {
+		return BLOCK_TYPES[cells[index(x, y)]];
+	}
+
+	/**
+	 * Checks the type of a tile. Tiles outside the maze are of no type.
+	 */
+	public boolean is(int x, int y, Tile.BlockType type) {
+		return isInside(x, y) && cells[y * width + x] == type.ordinal();
+	}
+
+	/**
+	 * Changes the type of a tile and tells the listeners, if the type is different.
+	 * @throws IndexOutOfBoundsException if the tile is outside the maze
+	 */
+	public void set(int x, int y, Tile.BlockType type) {
+		int index = index(x, y);
+		Tile.BlockType from = BLOCK_TYPES[cells[index]];
+		if (from == type) return;
+
+		cells[index] = (byte) type.ordinal();
+		counts[from.ordinal()]--;
+		counts[type.ordinal()]++;
+
+		for (Listener listener : listeners) {
+			listener.tileChanged(x, y, from, type);
+		}
+	}
+
+	/**
+	 * Obtains the number of tiles of a type.
+	 */
+	public int getCount(Tile.BlockType type) {
+		return counts[type.ordinal()];
+	}
+
+	/**
+	 * Finds the first tile of a type, going row by row.
+	 * @return the index of the tile (y * width + x), or -1 if there is none
+	 */
+	public int find(Tile.BlockType type) {
+		if (counts[type.ordinal()] == 0) return -1;
+
+		byte ordinal = (byte) type.ordinal();
+		for (int i = 0; i < width * height; i++) {
+			if (cells[i] == ordinal) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Obtains the tile ordinals, row-major. They are the grid's own, so they must not be changed.
+	 */
+	public byte[] getCells() {
+		return cells;
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	private int index(int x, int y) {
+		if (!isInside(x, y)) {
+			throw new IndexOutOfBoundsException("Tile " + x + "," + y + " is outside the " + width + "x" + height + " maze");
+		}
+		return y * width + x;
+	}
+
+}
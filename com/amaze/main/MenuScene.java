@@ -1,5 +1,6 @@
 package com.amaze.main;
 import org.jsfml.audio.Music;
+import org.jsfml.audio.Sound;
 import org.jsfml.graphics.RenderWindow;
 import org.jsfml.window.event.Event;
 
@@ -17,7 +18,7 @@ public class MenuScene extends Scene {
 	private Title title;
 	private Background background;
 	private Music music;
-	private Music click;
+	private Sound click;
 	private boolean state = true;
 
 	/**
@@ -58,10 +59,10 @@ public class MenuScene extends Scene {
 		buttons[5] = new WebButton         (itemXCoord * 0.2F, itemYCoord * 3.5F, webButtonWidth, webButtonHeight, window, this);
 
         music = new Music();
-        click = new Music();
+        click = new Sound();
         try {
             music.openFromFile(Paths.get("res/music/Chilled Music.wav"));
-            click.openFromFile(Paths.get("res/music/Click.wav"));
+            click.setBuffer(acquireSound("res/music/Click.wav"));
         } catch (IOException e) {
             System.out.println("There was a problem loading the background music or click music.");
         }
@@ -194,22 +195,12 @@ public class MenuScene extends Scene {
 	public void musicPlaying(boolean state) {
 		if (!state) {
 			music.pause();
+			((MusicButton) buttons[4]).showMusicOn(false);
 			buttons[4].setSelected(true);
-			try {
-				buttons[4].getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOff.png"));
-				buttons[4].getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOffsel.png"));
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 		} else {
+			((MusicButton) buttons[4]).showMusicOn(true);
 			buttons[4].setSelected(false);
 			music.play();
-			try {
-				buttons[4].getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOn.png"));
-				buttons[4].getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOnsel.png"));
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 		}
 	}
 
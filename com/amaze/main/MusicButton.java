@@ -1,31 +1,60 @@
 package com.amaze.main;
 
+import org.jsfml.graphics.Texture;
+
 import java.io.IOException;
-import java.nio.file.Paths;
 
 /**
  * This class holds information associated with Music switch button which is located in the Main Menu.
+ * The on and off icons are shared through the AssetRegistry, so switching between them loads nothing.
  */
 public class MusicButton extends Button {
 
+    private static final String[] ICONS = {
+            "res/menuGraphics/musicOn.png", "res/menuGraphics/musicOnsel.png",
+            "res/menuGraphics/musicOff.png", "res/menuGraphics/musicOffsel.png"
+    };
+
+    private Texture[] icons = new Texture[ICONS.length];
+    private boolean disposed;
+
     /* Music button for MenuScene. */
     public MusicButton(float xCord, float yCord, float width, float height, Window window, MenuScene menu) throws IOException {
         super(xCord, yCord, width, height, window, menu);
-
-		getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOn.png"));
-        getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOnsel.png"));
-        this.setTexture(getDefaultIcon());
+        loadIcons();
     }
 
     /* Music button for GameScene HUD */
 	public MusicButton(float xCord, float yCord, float width, float height, Window window) throws IOException {
         super(xCord, yCord, width, height, window);
+        loadIcons();
+    }
+
+    private void loadIcons() throws IOException {
+        for (int i = 0; i < ICONS.length; i++) {
+            icons[i] = AssetRegistry.getShared().acquireTexture(ICONS[i]);
+        }
+        showMusicOn(true);
+    }
+
+    /**
+     * Switches between the music on and music off icons.
+     */
+    public void showMusicOn(boolean on) {
+        int first = on ? 0 : 2;
+        setIcons(icons[first], icons[first + 1]);
+    }
 
-		getDefaultIcon().loadFromFile(Paths.get("res/menuGraphics/musicOn.png"));
-        getSelectedIcon().loadFromFile(Paths.get("res/menuGraphics/musicOnsel.png"));
-        getDefaultIcon().setSmooth(true);
-        getSelectedIcon().setSmooth(true);
-        this.setTexture(getDefaultIcon());
+    /**
+     * Gives the icons back to the AssetRegistry once the button is no longer used. Only the first call does
+     * anything, as the icons may still be held by other buttons.
+     */
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+        for (String path : ICONS) {
+            AssetRegistry.getShared().release(path);
+        }
     }
 
 	public void performAction() {}
@@ -1,9 +1,15 @@
 package com.amaze.main;
 
+import org.jsfml.audio.SoundBuffer;
 import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Font;
 import org.jsfml.graphics.RenderWindow;
+import org.jsfml.graphics.Texture;
 import org.jsfml.window.event.Event;
 
+import java.io.IOException;
+import java.util.ArrayList;
+
 /**
  * This is an abstract class which defines every scene in the aMaze project.
  */
@@ -12,6 +18,7 @@ public abstract class Scene implements Displayable {
     private Window window;              	//Object reference to the window class.
     private String sceneTitle;              //Title which is displayed on the window frame.
     private boolean running = false;        //State
+    private ArrayList<String> assets = new ArrayList<>();   //Paths this scene holds in the AssetRegistry
 
     public Scene(String sceneTitle, Window window) {
         this.sceneTitle = sceneTitle;
@@ -61,11 +68,49 @@ public abstract class Scene implements Displayable {
     }
 
     public void exitScene(Scene currentScene) {
+        currentScene.releaseAssets();
         window.setScene(0);
         window.getScene(0).display();
         currentScene.setRunning(false);
     }
 
+	/**
+	 * Obtains a shared texture from the AssetRegistry, held until the scene releases its assets.
+	 */
+	public Texture acquireTexture(String path) throws IOException {
+		Texture texture = AssetRegistry.getShared().acquireTexture(path);
+		assets.add(path);
+		return texture;
+	}
+
+	/**
+	 * Obtains a shared font from the AssetRegistry, held until the scene releases its assets.
+	 */
+	public Font acquireFont(String path) throws IOException {
+		Font font = AssetRegistry.getShared().acquireFont(path);
+		assets.add(path);
+		return font;
+	}
+
+	/**
+	 * Obtains a shared sound from the AssetRegistry, held until the scene releases its assets.
+	 */
+	public SoundBuffer acquireSound(String path) throws IOException {
+		SoundBuffer sound = AssetRegistry.getShared().acquireSound(path);
+		assets.add(path);
+		return sound;
+	}
+
+	/**
+	 * Gives back everything the scene acquired from the AssetRegistry. Called when the scene is left.
+	 */
+	public void releaseAssets() {
+		for (String path : assets) {
+			AssetRegistry.getShared().release(path);
+		}
+		assets.clear();
+	}
+
 	public static void pause(int time) {
 		try {
 			Thread.sleep(time);
@@ -0,0 +1,147 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.Image;
+import org.jsfml.graphics.IntRect;
+import org.jsfml.graphics.Texture;
+import org.jsfml.graphics.TextureCreationException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Packs the in-game images into one texture: the seven tiles, the four direction frames of every avatar
+ * and the battery charge frames.
+ *
+ * Every image is box filtered into a CELL_SIZE square of a grid, and the cell of each image is looked up
+ * by BlockType, avatar and direction, or charge level. Anything drawn from the atlas can share a texture,
+ * so batched geometry needs no texture switches.
+ */
+public class TextureAtlas {
+
+	public static final int CELL_SIZE = 256;
+	public static final int AVATARS = 3;
+	public static final String[] DIRECTIONS = {"UP", "DOWN", "LEFT", "RIGHT"};
+
+	private static final Tile.BlockType[] BLOCK_TYPES = Tile.BlockType.values();
+
+	private static final int FIRST_TILE = 0;
+	private static final int FIRST_AVATAR = FIRST_TILE + BLOCK_TYPES.length;
+	private static final int FIRST_BATTERY = FIRST_AVATAR + AVATARS * DIRECTIONS.length;
+	private static final int CELLS = FIRST_BATTERY + Battery.MAX;
+
+	private static TextureAtlas shared;
+
+	private final int columns;
+	private final IntRect[] cells = new IntRect[CELLS];
+	private final Texture texture = new Texture();
+
+	/**
+	 * Obtains the atlas, building it on first use. This must happen on the render thread, which is why
+	 * Driver builds it at startup.
+	 */
+	public static synchronized TextureAtlas getShared() {
+		if (shared == null) {
+			try {
+				shared = new TextureAtlas();
+			} catch (IOException | TextureCreationException e) {
+				throw new IllegalStateException("Could not build the texture atlas", e);
+			}
+		}
+		return shared;
+	}
+
+	private TextureAtlas() throws IOException, TextureCreationException {
+		columns = (int) Math.ceil(Math.sqrt(CELLS));
+		int rows = (CELLS + columns - 1) / columns;
+		int atlasWidth = columns * CELL_SIZE;
+		byte[] pixels = new byte[atlasWidth * rows * CELL_SIZE * 4];
+
+		for (Tile.BlockType type : BLOCK_TYPES) {
+			pack(pixels, atlasWidth, FIRST_TILE + type.ordinal(), "res/images/" + type.toString().toLowerCase() + ".png");
+		}
+		for (int avatar = 1; avatar <= AVATARS; avatar++) {
+			for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+				pack(pixels, atlasWidth, avatarCell(avatar, direction), "res/avatars/" + avatar + "/" + DIRECTIONS[direction].toLowerCase() + ".png");
+			}
+		}
+		for (int level = 1; level <= Battery.MAX; level++) {
+			pack(pixels, atlasWidth, batteryCell(level), "res/images/battery/" + level + ".png");
+		}
+
+		Image image = new Image();
+		image.create(atlasWidth, rows * CELL_SIZE, pixels);
+		texture.loadFromImage(image);
+		texture.setSmooth(true);
+	}
+
+	public Texture getTexture() {
+		return texture;
+	}
+
+	public IntRect getTileRect(Tile.BlockType type) {
+		return cells[FIRST_TILE + type.ordinal()];
+	}
+
+	/**
+	 * @param avatar - avatar number, from 1 to AVATARS
+	 * @param direction - index into DIRECTIONS
+	 */
+	public IntRect getAvatarRect(int avatar, int direction) {
+		return cells[avatarCell(avatar, direction)];
+	}
+
+	/**
+	 * @param level - charge level, from 1 to Battery.MAX
+	 */
+	public IntRect getBatteryRect(int level) {
+		return cells[batteryCell(level)];
+	}
+
+	private static int avatarCell(int avatar, int direction) {
+		return FIRST_AVATAR + (avatar - 1) * DIRECTIONS.length + direction;
+	}
+
+	private static int batteryCell(int level) {
+		return FIRST_BATTERY + level - 1;
+	}
+
+	/**
+	 * Loads an image and box filters it into its cell of the atlas pixels.
+	 */
+	private void pack(byte[] dest, int destWidth, int cell, String path) throws IOException {
+		Image source = new Image();
+		source.loadFromFile(Paths.get(path));
+
+		int cellX = (cell % columns) * CELL_SIZE;
+		int cellY = (cell / columns) * CELL_SIZE;
+		cells[cell] = new IntRect(cellX, cellY, CELL_SIZE, CELL_SIZE);
+
+		byte[] pixels = source.getPixelsArray();
+		int sourceWidth = source.getSize().x;
+		int sourceHeight = source.getSize().y;
+		int[] sum = new int[4];
+
+		for (int y = 0; y < CELL_SIZE; y++) {
+			int top = y * sourceHeight / CELL_SIZE;
+			int bottom = Math.max(top + 1, (y + 1) * sourceHeight / CELL_SIZE);
+
+			for (int x = 0; x < CELL_SIZE; x++) {
+				int left = x * sourceWidth / CELL_SIZE;
+				int right = Math.max(left + 1, (x + 1) * sourceWidth / CELL_SIZE);
+				sum[0] = sum[1] = sum[2] = sum[3] = 0;
+
+				for (int sy = top; sy < bottom; sy++) {
+					for (int sx = left; sx < right; sx++) {
+						int in = (sy * sourceWidth + sx) * 4;
+						for (int c = 0; c < 4; c++) sum[c] += pixels[in + c] & 0xFF;
+					}
+				}
+
+				int samples = (bottom - top) * (right - left);
+				int out = ((cellY + y) * destWidth + cellX + x) * 4;
+				for (int c = 0; c < 4; c++) dest[out + c] = (byte) (sum[c] / samples);
+			}
+		}
+	}
+
+}
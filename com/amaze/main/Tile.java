@@ -1,7 +1,6 @@
 package com.amaze.main;
 
 import org.jsfml.graphics.RectangleShape;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -17,59 +16,17 @@ public class Tile extends RectangleShape{
     }
 
     /**
-     * Construct a Tile
+     * Construct a Tile, textured from the shared TextureAtlas
      * @param originX Start X pos
      * @param originY Start Y pos
      */
-    public Tile(int originX, int originY, int sizeX, int sizeY, BlockType type, Texture[] imageCache){
+    public Tile(int originX, int originY, int sizeX, int sizeY, BlockType type){
 		Vector2f position = new Vector2f(originX, originY);
 		Vector2f tileSize = new Vector2f(sizeX, sizeY);
-        Texture tileTexture = new Texture();
-        tileTexture.setSmooth(true);
 
-        //Set image according to type
-        switch (type){
-            case WALL:
-                blockType = BlockType.WALL;
-                imageCache[0].setSmooth(true);
-                tileTexture = imageCache[0];
-                break;
-            case FLOOR:
-                blockType = BlockType.FLOOR;
-                imageCache[1].setSmooth(true);
-                tileTexture = imageCache[1];
-                break;
-            case DOOR:
-                blockType = BlockType.DOOR;
-                imageCache[2].setSmooth(true);
-                tileTexture = imageCache[2];
-                break;
-            case START:
-                blockType = BlockType.START;
-                imageCache[3].setSmooth(true);
-                tileTexture = imageCache[3];
-                break;
-            case FINISH:
-                blockType = BlockType.FINISH;
-                imageCache[4].setSmooth(true);
-                tileTexture = imageCache[4];
-                break;
-            case VOID:
-                blockType = BlockType.VOID;
-                imageCache[5].setSmooth(true);
-                tileTexture = imageCache[5];
-                break;
-            case CHARGE:
-                blockType = BlockType.CHARGE;
-                imageCache[6].setSmooth(true);
-                tileTexture = imageCache[6];
-                break;
-            default:
-                System.out.print("Block must have type defined");
-                break;
-        }
-
-        this.setTexture(tileTexture);
+        //Set image according to type. The atlas is built at startup, so Tiles can be built off the render thread
+        this.setTexture(TextureAtlas.getShared().getTexture());
+        setTileType(type);
         this.setSize(tileSize);
         this.setPosition(position);
     }
@@ -80,6 +37,7 @@ public class Tile extends RectangleShape{
 
     public void setTileType(Tile.BlockType blockType) {
         this.blockType = blockType;
+        setTextureRect(TextureAtlas.getShared().getTileRect(blockType));
     }
 
 }
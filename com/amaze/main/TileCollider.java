@@ -0,0 +1,107 @@
+package com.amaze.main;
+
+/**
+ * Moves a square box through the maze, stopping it flush against walls.
+ *
+ * The box is moved along x and then along y. Along each axis every column (or row) of tiles the leading edge
+ * crosses is checked in order, so the box stops at the first wall in its way however far it moves in one go.
+ * Tiles the box already overlaps are not in its way, so a door that closes on the player does not trap them.
+ * Everything outside the maze is treated as wall.
+ */
+public class TileCollider {
+
+	//Fraction of a tile edges may be off by from rounding and still count as touching rather than overlapping
+	private static final float EPSILON = 1e-3F;
+
+	private MazeGrid grid;
+	private int blockSize;
+
+	public TileCollider(MazeGrid grid, int blockSize) {
+		this.grid = grid;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Checks whether a tile stops movement.
+	 */
+	public boolean isSolid(int x, int y) {
+		return !grid.isInside(x, y) || grid.get(x, y) == Tile.BlockType.WALL;
+	}
+
+	/**
+	 * Works out where a box ends up when moved along x.
+	 *
+	 * @param x - left of the box, in pixels
+	 * @param y - top of the box, in pixels
+	 * @param size - width and height of the box, in pixels
+	 * @param dx - distance to move, in pixels
+	 * @return the new left of the box
+	 */
+	public float moveX(float x, float y, float size, float dx) {
+		if (dx == 0) return x;
+
+		int top = (int) Math.floor(y / blockSize + EPSILON);
+		int bottom = (int) Math.ceil((y + size) / blockSize - EPSILON) - 1;
+
+		if (dx > 0) {
+			int first = (int) Math.ceil((x + size) / blockSize - EPSILON);
+			int last = (int) Math.ceil((x + size + dx) / blockSize) - 1;
+			for (int column = first; column <= last; column++) {
+				if (solidColumn(column, top, bottom)) return column * blockSize - size;
+			}
+		} else {
+			int first = (int) Math.floor(x / blockSize + EPSILON) - 1;
+			int last = (int) Math.floor((x + dx) / blockSize);
+			for (int column = first; column >= last; column--) {
+				if (solidColumn(column, top, bottom)) return (column + 1) * blockSize;
+			}
+		}
+		return x + dx;
+	}
+
+	/**
+	 * Works out where a box ends up when moved along y.
+	 *
+	 * @param x - left of the box, in pixels
+	 * @param y - top of the box, in pixels
+	 * @param size - width and height of the box, in pixels
+	 * @param dy - distance to move, in pixels
+	 * @return the new top of the box
+	 */
+	public float moveY(float x, float y, float size, float dy) {
+		if (dy == 0) return y;
+
+		int left = (int) Math.floor(x / blockSize + EPSILON);
+		int right = (int) Math.ceil((x + size) / blockSize - EPSILON) - 1;
+
+		if (dy > 0) {
+			int first = (int) Math.ceil((y + size) / blockSize - EPSILON);
+			int last = (int) Math.ceil((y + size + dy) / blockSize) - 1;
+			for (int row = first; row <= last; row++) {
+				if (solidRow(row, left, right)) return row * blockSize - size;
+			}
+		} else {
+			int first = (int) Math.floor(y / blockSize + EPSILON) - 1;
+			int last = (int) Math.floor((y + dy) / blockSize);
+			for (int row = first; row >= last; row--) {
+				if (solidRow(row, left, right)) return (row + 1) * blockSize;
+			}
+		}
+		return y + dy;
+	}
+
+	private boolean solidColumn(int column, int top, int bottom) {
+		for (int row = top; row <= bottom; row++) {
+			if (isSolid(column, row)) return true;
+		}
+		return false;
+	}
+
+	private boolean solidRow(int row, int left, int right) {
+		for (int column = left; column <= right; column++) {
+			if (isSolid(column, row)) return true;
+		}
+		return false;
+	}
+
+}
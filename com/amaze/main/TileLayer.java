@@ -0,0 +1,211 @@
+package com.amaze.main;
+
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+/**
+ * Draws the tiles of the maze in as few draw calls as possible.
+ *
+ * The maze is split into CHUNK_SIZE square chunks of quads, textured from the shared TextureAtlas. A maze small
+ * enough is drawn into an off-screen RenderTexture once, and after that only tiles that change are drawn into it
+ * again, so each frame draws one sprite. A bigger maze is drawn a chunk at a time, and only the chunks under the
+ * target's view are built and drawn, so the cost of a frame depends on the size of the view and not of the maze.
+ */
+public class TileLayer implements Drawable, MazeGrid.Listener {
+
+	public static final int CHUNK_SIZE = 32;           //Tiles along each side of a chunk
+	private static final int CACHE_LIMIT = 2048;       //Largest maze, in pixels, drawn from an off-screen texture
+
+	private int width;
+	private int height;
+	private int blockSize;
+	private int chunksX;
+	private int chunksY;
+
+	private MazeGrid grid;
+
+	private TextureAtlas atlas = TextureAtlas.getShared();
+	private RenderStates renderStates = new RenderStates(atlas.getTexture());
+
+	private VertexArray[] chunks;                      //Quads of the chunks in view, null for the others
+	private int firstChunkX = 0, firstChunkY = 0;      //Chunks drawn by the last frame
+	private int lastChunkX = -1, lastChunkY = -1;
+
+	private RenderTexture cache;                       //Null when the maze is drawn a chunk at a time
+	private Sprite cachedLayer;
+	private RenderStates replaceStates = new RenderStates(BlendMode.NONE, Transform.IDENTITY, atlas.getTexture(), null);
+	private VertexArray dirtyVertices = new VertexArray(PrimitiveType.QUADS);
+
+	/**
+	 * Creates the layer for a maze. It has to be added to the maze's listeners to follow changes to it.
+	 * @param blockSize - size of each tile on screen, in pixels
+	 */
+	public TileLayer(MazeGrid grid, int blockSize) {
+		this.grid = grid;
+		this.width = grid.getWidth();
+		this.height = grid.getHeight();
+		this.blockSize = blockSize;
+
+		chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunks = new VertexArray[chunksX * chunksY];
+
+		createCache();
+	}
+
+	/**
+	 * Changes the image shown for a tile. The cached layer is brought up to date the next time it is drawn.
+	 */
+	public synchronized void tileChanged(int x, int y, Tile.BlockType from, Tile.BlockType to) {
+		if (cache != null) {
+			for (int corner = 0; corner < 4; corner++) {
+				dirtyVertices.add(createVertex(x, y, corner));
+			}
+			return;
+		}
+
+		//Chunks out of view are built from the grid when they come into view
+		VertexArray chunk = chunks[(y / CHUNK_SIZE) * chunksX + x / CHUNK_SIZE];
+		if (chunk != null) {
+			int first = chunkIndex(x, y) * 4;
+			for (int corner = 0; corner < 4; corner++) {
+				chunk.set(first + corner, createVertex(x, y, corner));
+			}
+		}
+	}
+
+	public int getWidth() { return width; }
+
+	public int getHeight() { return height; }
+
+	/**
+	 * Checks whether the maze is being drawn from the off-screen cache.
+	 */
+	public boolean isCached() {
+		return cache != null;
+	}
+
+	/**
+	 * Obtains the number of chunks drawn by the last frame, or 0 when the maze is drawn from the cache.
+	 */
+	public int getVisibleChunks() {
+		if (cache != null) return 0;
+		return Math.max(0, lastChunkX - firstChunkX + 1) * Math.max(0, lastChunkY - firstChunkY + 1);
+	}
+
+	public synchronized void draw(RenderTarget target, RenderStates states) {
+		if (cache != null) {
+			if (!dirtyVertices.isEmpty()) {
+				//Replace rather than blend, so a changed tile's old image does not show through
+				cache.draw(dirtyVertices, replaceStates);
+				cache.display();
+				dirtyVertices.clear();
+			}
+			target.draw(cachedLayer);
+			return;
+		}
+
+		ConstView view = target.getView();
+		float viewLeft = view.getCenter().x - view.getSize().x / 2;
+		float viewTop = view.getCenter().y - view.getSize().y / 2;
+		int chunkPixels = CHUNK_SIZE * blockSize;
+
+		int fromX = Math.max(0, (int) Math.floor(viewLeft / chunkPixels));
+		int fromY = Math.max(0, (int) Math.floor(viewTop / chunkPixels));
+		int toX = Math.min(chunksX - 1, (int) Math.floor((viewLeft + view.getSize().x - 1) / chunkPixels));
+		int toY = Math.min(chunksY - 1, (int) Math.floor((viewTop + view.getSize().y - 1) / chunkPixels));
+
+		//Let go of the chunks that have scrolled out of view
+		for (int cy = firstChunkY; cy <= lastChunkY; cy++) {
+			for (int cx = firstChunkX; cx <= lastChunkX; cx++) {
+				if (cx < fromX || cx > toX || cy < fromY || cy > toY) chunks[cy * chunksX + cx] = null;
+			}
+		}
+
+		for (int cy = fromY; cy <= toY; cy++) {
+			for (int cx = fromX; cx <= toX; cx++) {
+				int chunk = cy * chunksX + cx;
+				if (chunks[chunk] == null) chunks[chunk] = buildChunk(cx, cy);
+				target.draw(chunks[chunk], renderStates);
+			}
+		}
+
+		firstChunkX = fromX;
+		firstChunkY = fromY;
+		lastChunkX = toX;
+		lastChunkY = toY;
+	}
+
+	/**
+	 * Draws the whole maze into an off-screen texture, if it is small enough.
+	 */
+	private void createCache() {
+		int pixelWidth = width * blockSize;
+		int pixelHeight = height * blockSize;
+		int limit = Math.min(CACHE_LIMIT, Texture.getMaximumSize());
+		if (pixelWidth > limit || pixelHeight > limit) return;
+
+		try {
+			cache = new RenderTexture();
+			cache.create(pixelWidth, pixelHeight);
+		} catch (TextureCreationException e) {
+			System.out.println("Could not cache the maze, drawing it a chunk at a time");
+			cache = null;
+			return;
+		}
+
+		cache.clear(Color.BLACK);
+		for (int cy = 0; cy < chunksY; cy++) {
+			for (int cx = 0; cx < chunksX; cx++) {
+				cache.draw(buildChunk(cx, cy), renderStates);
+			}
+		}
+		cache.display();
+		cachedLayer = new Sprite(cache.getTexture());
+	}
+
+	/**
+	 * Creates the quads of one chunk, in the order chunkIndex expects.
+	 */
+	private VertexArray buildChunk(int chunkX, int chunkY) {
+		VertexArray chunk = new VertexArray(PrimitiveType.QUADS);
+		int right = Math.min(width, (chunkX + 1) * CHUNK_SIZE);
+		int bottom = Math.min(height, (chunkY + 1) * CHUNK_SIZE);
+
+		for (int y = chunkY * CHUNK_SIZE; y < bottom; y++) {
+			for (int x = chunkX * CHUNK_SIZE; x < right; x++) {
+				for (int corner = 0; corner < 4; corner++) {
+					chunk.add(createVertex(x, y, corner));
+				}
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Obtains the position of a tile's quad within its chunk.
+	 */
+	private int chunkIndex(int x, int y) {
+		int chunkLeft = (x / CHUNK_SIZE) * CHUNK_SIZE;
+		int chunkWidth = Math.min(CHUNK_SIZE, width - chunkLeft);
+		return (y % CHUNK_SIZE) * chunkWidth + (x - chunkLeft);
+	}
+
+	/**
+	 * Creates one corner of a tile's quad. Corners go clockwise from the top left.
+	 */
+	private Vertex createVertex(int x, int y, int corner) {
+		int right = (corner == 1 || corner == 2) ? 1 : 0;
+		int bottom = (corner == 2 || corner == 3) ? 1 : 0;
+
+		//Inset by half a texel so smoothing does not pick up the neighbouring image in the atlas
+		IntRect cell = atlas.getTileRect(grid.get(x, y));
+		float textureX = cell.left + 0.5F + right * (cell.width - 1);
+		float textureY = cell.top + 0.5F + bottom * (cell.height - 1);
+
+		Vector2f position = new Vector2f((x + right) * blockSize, (y + bottom) * blockSize);
+		Vector2f texCoords = new Vector2f(textureX, textureY);
+		return new Vertex(position, Color.WHITE, texCoords);
+	}
+
+}
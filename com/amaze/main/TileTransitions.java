@@ -0,0 +1,88 @@
+package com.amaze.main;
+
+import java.util.HashMap;
+
+/**
+ * Changes tiles of the maze after a delay, such as a door closing after the player has gone through it.
+ *
+ * Transitions are fired by the game loop's EffectScheduler, so tiles are only ever changed on the game loop's
+ * thread. A tile has at most one transition pending, and asking for another while one is pending does nothing,
+ * so a door the player overlaps for many ticks is still only closed once. A transition can revert after a
+ * while, which is how a door reopens or a charge respawns.
+ */
+public class TileTransitions {
+
+	private EffectScheduler scheduler;
+	private MazeGrid grid;
+	private int width;
+
+	private HashMap<Integer, Transition> pending = new HashMap<>();     //Tile index to its pending transition
+
+	private static class Transition {
+		final Tile.BlockType type;
+		final int revertTicks;
+
+		Transition(Tile.BlockType type, int revertTicks) {
+			this.type = type;
+			this.revertTicks = revertTicks;
+		}
+	}
+
+	public TileTransitions(EffectScheduler scheduler, MazeGrid grid) {
+		this.scheduler = scheduler;
+		this.grid = grid;
+		this.width = grid.getWidth();
+	}
+
+	/**
+	 * Changes a tile after a delay, unless the tile already has a transition pending.
+	 * @return true if the transition was scheduled
+	 */
+	public boolean schedule(int x, int y, int delayTicks, Tile.BlockType type) {
+		return schedule(x, y, delayTicks, type, 0);
+	}
+
+	/**
+	 * Changes a tile after a delay, and changes it back to what it was revertTicks later.
+	 * @param revertTicks - ticks until the tile changes back, 0 for never
+	 * @return true if the transition was scheduled
+	 */
+	public boolean schedule(int x, int y, int delayTicks, Tile.BlockType type, int revertTicks) {
+		int key = y * width + x;
+		if (pending.containsKey(key)) return false;
+
+		Transition transition = new Transition(type, revertTicks);
+		pending.put(key, transition);
+		scheduler.schedule(delayTicks, () -> fire(x, y, transition));
+		return true;
+	}
+
+	/**
+	 * Drops the transition pending on a tile, if there is one.
+	 */
+	public void cancel(int x, int y) {
+		pending.remove(y * width + x);
+	}
+
+	public boolean isPending(int x, int y) {
+		return pending.containsKey(y * width + x);
+	}
+
+	public int getPending() {
+		return pending.size();
+	}
+
+	private void fire(int x, int y, Transition transition) {
+		//Cancelled, or replaced by a later transition after being cancelled
+		if (pending.get(y * width + x) != transition) return;
+		pending.remove(y * width + x);
+
+		Tile.BlockType previous = grid.get(x, y);
+		grid.set(x, y, transition.type);
+
+		if (transition.revertTicks > 0) {
+			schedule(x, y, transition.revertTicks, previous);
+		}
+	}
+
+}
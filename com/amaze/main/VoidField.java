@@ -0,0 +1,58 @@
+package com.amaze.main;
+
+/**
+ * Holds, for every tile of the maze, how many of the tiles around it (and itself) are voids.
+ *
+ * The counts are worked out once when the level is loaded and kept up to date as tiles change, so finding
+ * how many voids the player is next to is a single array read.
+ */
+public class VoidField implements MazeGrid.Listener {
+
+	private int width;
+	private int height;
+	private byte[] counts;          //Row major, y * width + x
+
+	public VoidField(MazeGrid grid) {
+		width = grid.getWidth();
+		height = grid.getHeight();
+		counts = new byte[width * height];
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (grid.is(x, y, Tile.BlockType.VOID)) add(x, y, 1);
+			}
+		}
+	}
+
+	/**
+	 * Obtains the number of voids on and around a tile. Tiles outside the maze have none.
+	 */
+	public int getVoidCount(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return 0;
+		return counts[y * width + x];
+	}
+
+	/**
+	 * Updates the counts around a tile that has changed type.
+	 */
+	public void tileChanged(int x, int y, Tile.BlockType from, Tile.BlockType to) {
+		if (from == to) return;
+		if (from == Tile.BlockType.VOID) add(x, y, -1);
+		if (to == Tile.BlockType.VOID) add(x, y, 1);
+	}
+
+	/**
+	 * Adds to the counts of a tile and the eight around it.
+	 */
+	private void add(int x, int y, int amount) {
+		int right = Math.min(width - 1, x + 1);
+		int bottom = Math.min(height - 1, y + 1);
+
+		for (int j = Math.max(0, y - 1); j <= bottom; j++) {
+			for (int i = Math.max(0, x - 1); i <= right; i++) {
+				counts[j * width + i] += amount;
+			}
+		}
+	}
+
+}
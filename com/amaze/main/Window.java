@@ -56,7 +56,6 @@ public class Window extends RenderWindow {
 
         // Creating a new window
         this.create(new VideoMode(screenWidth, screenHeight), "aMaze", WindowStyle.DEFAULT);
-        this.setFramerateLimit(30);
     }
 
     /**
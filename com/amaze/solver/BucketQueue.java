@@ -0,0 +1,77 @@
+package com.amaze.solver;
+
+import java.util.Arrays;
+
+/**
+ * Tile indices ordered by a small whole number priority, for A*.
+ *
+ * Priorities are kept in a ring of buckets, one per priority, so adding and taking a tile do not depend on how
+ * many tiles are queued. This only works when every priority added is at least the lowest one still queued and
+ * less than that plus the number of buckets, which holds for A* with a consistent heuristic and bounded step cost.
+ * The number of buckets is rounded up to a power of two, so finding a priority's bucket is a mask rather than a
+ * division. Within a priority the tile added last is taken first.
+ */
+class BucketQueue {
+
+	private int[][] buckets;
+	private int mask;               //Number of buckets - 1
+	private int[] sizes;
+	private int lowest;             //Lowest priority that may have tiles queued, never goes down
+	private int size;
+
+	/**
+	 * @param span - one more than the most a priority added can exceed the lowest queued priority by
+	 * @param lowest - lowest priority that will be added
+	 */
+	BucketQueue(int span, int lowest) {
+		int count = Integer.highestOneBit(Math.max(1, span - 1)) << 1;
+		buckets = new int[count][16];
+		mask = count - 1;
+		sizes = new int[count];
+		this.lowest = lowest;
+	}
+
+	/**
+	 * Empties the queue, keeping the buckets for the next use.
+	 * @param lowest - lowest priority that will be added
+	 */
+	void clear(int lowest) {
+		Arrays.fill(sizes, 0);
+		size = 0;
+		this.lowest = lowest;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void add(int tile, int priority) {
+		if (priority < lowest || priority >= lowest + buckets.length) {
+			throw new IllegalArgumentException("Priority " + priority + " is outside " + lowest + " to " + (lowest + buckets.length - 1));
+		}
+
+		int bucket = priority & mask;
+		if (sizes[bucket] == buckets[bucket].length) {
+			buckets[bucket] = Arrays.copyOf(buckets[bucket], sizes[bucket] * 2);
+		}
+		buckets[bucket][sizes[bucket]++] = tile;
+		size++;
+	}
+
+	/**
+	 * Takes a tile of the lowest priority queued.
+	 * @throws IllegalStateException if nothing is queued
+	 */
+	int poll() {
+		if (size == 0) throw new IllegalStateException("The queue is empty");
+
+		int bucket = lowest & mask;
+		while (sizes[bucket] == 0) {
+			lowest++;
+			bucket = lowest & mask;
+		}
+		size--;
+		return buckets[bucket][--sizes[bucket]];
+	}
+
+}
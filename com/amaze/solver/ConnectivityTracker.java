@@ -0,0 +1,191 @@
+package com.amaze.solver;
+
+import com.amaze.main.MazeGrid;
+import com.amaze.main.Tile;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of which tiles of a maze can be walked between, as tiles change, so whether FINISH can be reached
+ * from START is known without searching the maze.
+ *
+ * Every tile that is not a wall is in a union-find set with the tiles it can be walked to. A tile that stops being
+ * a wall is joined to the sets of its neighbours straight away. A union-find cannot be split, so a tile that
+ * becomes a wall is only dropped from its set, which is enough unless the wall cuts the set in two. That is
+ * checked from the eight tiles around the new wall: if its open neighbours are still joined to each other around
+ * it, nothing has been cut. Otherwise the sets are rebuilt from the grid, the next time they are asked about.
+ *
+ * A dropped tile's node stays in the union-find, as other nodes may lead through it to their root, so a tile that
+ * opens again is given a new node.
+ */
+public class ConnectivityTracker implements MazeGrid.Listener {
+
+	private static final byte WALL = (byte) Tile.BlockType.WALL.ordinal();
+
+	//The eight tiles around a tile, going clockwise from above. Even entries are the four it can be walked to
+	private static final int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1};
+	private static final int[] RING_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+	private MazeGrid grid;
+	private byte[] cells;
+	private int width;
+	private int height;
+
+	private int[] nodes;            //Union-find node of each tile, row-major. Only meaningful for open tiles
+	private int[] parent;           //Parent of each node
+	private int[] size;             //Number of nodes in the set, only meaningful for roots
+	private int nodeCount;
+	private boolean stale;          //A wall may have split a set, so the sets must be rebuilt before being used
+
+	private int start = -1;         //Index of the START tile, or -1 if it has to be looked for
+	private int finish = -1;
+	private int rebuilds;
+
+	/**
+	 * Creates the sets for a maze. It has to be added to the maze's listeners to follow changes to it.
+	 */
+	public ConnectivityTracker(MazeGrid grid) {
+		this.grid = grid;
+		this.cells = grid.getCells();
+		this.width = grid.getWidth();
+		this.height = grid.getHeight();
+
+		nodes = new int[width * height];
+		parent = new int[width * height];
+		size = new int[width * height];
+		rebuild();
+	}
+
+	public void tileChanged(int x, int y, Tile.BlockType from, Tile.BlockType to) {
+		int tile = y * width + x;
+		if (to == Tile.BlockType.START) start = tile;
+		else if (tile == start) start = -1;
+		if (to == Tile.BlockType.FINISH) finish = tile;
+		else if (tile == finish) finish = -1;
+
+		boolean wasOpen = from != Tile.BlockType.WALL;
+		boolean isOpen = to != Tile.BlockType.WALL;
+		if (stale || wasOpen == isOpen) return;
+
+		if (isOpen) {
+			nodes[tile] = newNode();
+			for (int i = 0; i < RING_X.length; i += 2) {
+				if (isOpen(x + RING_X[i], y + RING_Y[i])) union(nodes[tile], nodes[(y + RING_Y[i]) * width + x + RING_X[i]]);
+			}
+		} else if (splitsAround(x, y)) {
+			stale = true;
+		}
+	}
+
+	/**
+	 * Checks whether two tiles can be walked between. Walls cannot be walked between anything.
+	 */
+	public boolean isConnected(int x1, int y1, int x2, int y2) {
+		if (!isOpen(x1, y1) || !isOpen(x2, y2)) return false;
+		if (stale) rebuild();
+		return find(nodes[y1 * width + x1]) == find(nodes[y2 * width + x2]);
+	}
+
+	/**
+	 * Checks whether the maze has one START and one FINISH, and FINISH can be reached from START.
+	 */
+	public boolean isFinishReachable() {
+		if (grid.getCount(Tile.BlockType.START) != 1 || grid.getCount(Tile.BlockType.FINISH) != 1) return false;
+		if (start < 0) start = grid.find(Tile.BlockType.START);
+		if (finish < 0) finish = grid.find(Tile.BlockType.FINISH);
+
+		return isConnected(start % width, start / width, finish % width, finish / width);
+	}
+
+	/**
+	 * Obtains the number of times the sets have been rebuilt from the grid, including when they were created.
+	 */
+	public int getRebuilds() {
+		return rebuilds;
+	}
+
+	/**
+	 * Checks whether a tile that has just become a wall may have cut the tiles around it off from each other.
+	 * Its open neighbours are joined around it when each pair next to each other in the ring has an open tile in
+	 * the corner between them, and at most one pair does not.
+	 */
+	private boolean splitsAround(int x, int y) {
+		int open = 0;
+		int joined = 0;
+		for (int i = 0; i < RING_X.length; i += 2) {
+			if (!isOpen(x + RING_X[i], y + RING_Y[i])) continue;
+			open++;
+
+			int next = (i + 2) % RING_X.length;
+			if (isOpen(x + RING_X[i + 1], y + RING_Y[i + 1]) && isOpen(x + RING_X[next], y + RING_Y[next])) joined++;
+		}
+		return Math.max(1, open - joined) > 1;
+	}
+
+	/**
+	 * Works out the sets again from the grid.
+	 */
+	private void rebuild() {
+		if (parent.length > width * height) {
+			parent = new int[width * height];
+			size = new int[width * height];
+		}
+		for (int tile = 0; tile < nodes.length; tile++) {
+			nodes[tile] = tile;
+			parent[tile] = tile;
+			size[tile] = 1;
+		}
+		nodeCount = nodes.length;
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int tile = y * width + x;
+				if (cells[tile] == WALL) continue;
+				if (x + 1 < width && cells[tile + 1] != WALL) union(tile, tile + 1);
+				if (y + 1 < height && cells[tile + width] != WALL) union(tile, tile + width);
+			}
+		}
+		stale = false;
+		rebuilds++;
+	}
+
+	private boolean isOpen(int x, int y) {
+		return grid.isInside(x, y) && cells[y * width + x] != WALL;
+	}
+
+	/**
+	 * Adds a node in a set of its own.
+	 */
+	private int newNode() {
+		if (nodeCount == parent.length) {
+			parent = Arrays.copyOf(parent, nodeCount * 2);
+			size = Arrays.copyOf(size, nodeCount * 2);
+		}
+		parent[nodeCount] = nodeCount;
+		size[nodeCount] = 1;
+		return nodeCount++;
+	}
+
+	private int find(int node) {
+		while (parent[node] != node) {
+			parent[node] = parent[parent[node]];
+			node = parent[node];
+		}
+		return node;
+	}
+
+	private void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if (a == b) return;
+
+		if (size[a] < size[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		parent[b] = a;
+		size[a] += size[b];
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.amaze.solver;
+
+/**
+ * A path through a maze found by MazeSolver, from its START tile to its FINISH tile.
+ */
+public class MazePath {
+
+	private int width;
+	private int[] tiles;            //Tile indices (y * width + x), START first
+	private int cost;
+	private int explored;
+
+	MazePath(int width, int[] tiles, int cost, int explored) {
+		this.width = width;
+		this.tiles = tiles;
+		this.cost = cost;
+		this.explored = explored;
+	}
+
+	/**
+	 * Obtains the number of tiles on the path, counting START and FINISH.
+	 */
+	public int getLength() {
+		return tiles.length;
+	}
+
+	/**
+	 * Obtains the index (y * width + x) of a tile on the path.
+	 * @param step - 0 for START, getLength() - 1 for FINISH
+	 */
+	public int getIndex(int step) {
+		return tiles[step];
+	}
+
+	public int getX(int step) {
+		return tiles[step] % width;
+	}
+
+	public int getY(int step) {
+		return tiles[step] / width;
+	}
+
+	/**
+	 * Obtains the cost of walking the path: every tile stepped onto after START costs 1, or the solver's void
+	 * cost for a void.
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/**
+	 * Obtains the number of tiles the solver looked at before finding the path.
+	 */
+	public int getExplored() {
+		return explored;
+	}
+
+}
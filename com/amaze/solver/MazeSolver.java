@@ -0,0 +1,270 @@
+package com.amaze.solver;
+
+import com.amaze.main.MazeGrid;
+import com.amaze.main.Tile;
+
+/**
+ * Finds shortest paths from the START tile of a maze to its FINISH tile.
+ *
+ * Walls are blocked and every other tile can be walked on. Stepping onto a tile costs 1, except a void, which
+ * costs the void cost because standing next to voids drains the battery. Doors close behind the player, so each
+ * can only be used once; as every step costs something a shortest path never comes back to a tile, so that holds
+ * for every path found without having to track doors.
+ *
+ * The search state is kept in flat arrays, one byte of flags per tile and, for A*, one int of cost, so a search
+ * allocates nothing per tile and looking at a tile touches as little memory as possible. The arrays are indexed
+ * like the grid's cells but with a ring of walls around the maze, so neighbours are found by adding an offset and
+ * the edges of the maze need no checks of their own. Where the walls and voids are is worked out once, and a
+ * search starts from a copy of it rather than reading the grid again, so the solver has to be added to the
+ * grid's listeners if the grid may change between searches. The arrays are kept between searches, so a solver
+ * can be reused for as many searches as wanted, but not from more than one thread at a time.
+ */
+public class MazeSolver implements MazeGrid.Listener {
+
+	public static final int DEFAULT_VOID_COST = 5;
+
+	private static final byte WALL = (byte) Tile.BlockType.WALL.ordinal();
+	private static final byte VOID = (byte) Tile.BlockType.VOID.ordinal();
+
+	//Flags kept for each tile. The lowest two bits are the direction the tile was stepped onto in
+	private static final int DIRECTION = 0x03;
+	private static final int BLOCKED = 0x04;        //A wall, or the ring around the maze
+	private static final int IS_VOID = 0x08;
+	private static final int REACHED = 0x10;        //Taken from the queue, or for BFS put on it
+	private static final int OPENED = 0x20;         //Has a cost this search, for A*
+	private static final int CLOSED = BLOCKED | REACHED;
+
+	//Neighbours in the order they are tried: up, down, left, right
+	private static final int[] DX = {0, 0, -1, 1};
+	private static final int[] DY = {-1, 1, 0, 0};
+
+	private MazeGrid grid;
+	private byte[] cells;
+	private int width;
+	private int height;
+	private int paddedWidth;        //Width of the search arrays, with a wall either side of the maze
+	private int[] offsets;          //Index offset to each neighbour, in the order of DX and DY
+	private int voidCost;
+
+	private byte[] layout;          //BLOCKED and IS_VOID of each padded tile, kept up to date with the grid
+	private byte[] flags;           //The layout, and what the current search knows about each tile
+	private int[] queue;            //Breadth first search's queue, made on first use
+	private int[] cost;             //A*'s cheapest known cost to each opened tile, made on first use
+	private BucketQueue open;       //A*'s tiles to look at next, made on first use
+
+	public MazeSolver(MazeGrid grid) {
+		this(grid, DEFAULT_VOID_COST);
+	}
+
+	/**
+	 * @param voidCost - cost of stepping onto a void, at least 1
+	 */
+	public MazeSolver(MazeGrid grid, int voidCost) {
+		if (voidCost < 1) throw new IllegalArgumentException("Void cost must be at least 1, not " + voidCost);
+
+		this.grid = grid;
+		this.cells = grid.getCells();
+		this.width = grid.getWidth();
+		this.height = grid.getHeight();
+		this.voidCost = voidCost;
+
+		paddedWidth = width + 2;
+		offsets = new int[] {-paddedWidth, paddedWidth, -1, 1};
+
+		layout = new byte[paddedWidth * (height + 2)];
+		flags = new byte[layout.length];
+		findWalls();
+	}
+
+	/**
+	 * Keeps the walls and voids up to date with the grid.
+	 */
+	public void tileChanged(int x, int y, Tile.BlockType from, Tile.BlockType to) {
+		layout[(y + 1) * paddedWidth + x + 1] = layoutOf((byte) to.ordinal());
+	}
+
+	public int getVoidCost() {
+		return voidCost;
+	}
+
+	/**
+	 * Finds the path from START to FINISH that steps on the fewest tiles, by breadth first search. Voids count
+	 * as one step like any other tile.
+	 * @return the path, or null if FINISH cannot be reached or the maze has no START or FINISH
+	 */
+	public MazePath bfs() {
+		int start = grid.find(Tile.BlockType.START);
+		int finish = grid.find(Tile.BlockType.FINISH);
+		if (start < 0 || finish < 0) return null;
+		return bfs(start, finish);
+	}
+
+	/**
+	 * Finds the path between two tiles that steps on the fewest tiles.
+	 * @param start - index (y * width + x) of the first tile
+	 * @param finish - index of the last tile
+	 * @return the path, or null if finish cannot be reached
+	 */
+	public MazePath bfs(int start, int finish) {
+		reset();
+		if (queue == null) queue = new int[flags.length];
+
+		int from = pad(start);
+		int to = pad(finish);
+		if ((flags[from] & BLOCKED) != 0 || (flags[to] & BLOCKED) != 0) return null;
+
+		int head = 0, tail = 0;
+		queue[tail++] = from;
+		flags[from] |= REACHED;
+
+		while (head < tail) {
+			int tile = queue[head++];
+			if (tile == to) return buildPath(from, to, head);
+
+			for (int direction = 0; direction < 4; direction++) {
+				int next = tile + offsets[direction];
+				if ((flags[next] & CLOSED) != 0) continue;
+				flags[next] |= REACHED | direction;
+				queue[tail++] = next;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the cheapest path from START to FINISH, by A* with the Manhattan distance as the estimate.
+	 * @return the path, or null if FINISH cannot be reached or the maze has no START or FINISH
+	 */
+	public MazePath aStar() {
+		int start = grid.find(Tile.BlockType.START);
+		int finish = grid.find(Tile.BlockType.FINISH);
+		if (start < 0 || finish < 0) return null;
+		return aStar(start, finish);
+	}
+
+	/**
+	 * Finds the cheapest path between two tiles.
+	 * @param start - index (y * width + x) of the first tile
+	 * @param finish - index of the last tile
+	 * @return the path, or null if finish cannot be reached
+	 */
+	public MazePath aStar(int start, int finish) {
+		reset();
+		if (cost == null) cost = new int[flags.length];
+
+		int from = pad(start);
+		int to = pad(finish);
+		if ((flags[from] & BLOCKED) != 0 || (flags[to] & BLOCKED) != 0) return null;
+
+		//Padded coordinates, which are a tile further right and down than the maze's but the same distance apart
+		int toX = to % paddedWidth;
+		int toY = to / paddedWidth;
+		int explored = 0;
+
+		//A step raises cost by at most voidCost and lowers the estimate by at most 1, so it can raise the
+		//priority by at most voidCost + 1
+		int estimate = distance(from % paddedWidth, from / paddedWidth, toX, toY);
+		if (open == null) open = new BucketQueue(voidCost + 2, estimate);
+		else open.clear(estimate);
+		open.add(from, estimate);
+		flags[from] |= OPENED;
+		cost[from] = 0;
+
+		//Tiles are marked as reached once taken from the queue, as a cheaper way to them may still turn up
+		while (!open.isEmpty()) {
+			int tile = open.poll();
+			if ((flags[tile] & REACHED) != 0) continue;
+			flags[tile] |= REACHED;
+			explored++;
+			if (tile == to) return buildPath(from, to, explored);
+
+			int y = tile / paddedWidth;
+			int x = tile - y * paddedWidth;
+			int tileCost = cost[tile];
+			for (int direction = 0; direction < 4; direction++) {
+				int next = tile + offsets[direction];
+				int nextFlags = flags[next];
+				if ((nextFlags & CLOSED) != 0) continue;
+
+				int nextCost = tileCost + ((nextFlags & IS_VOID) != 0 ? voidCost : 1);
+				if ((nextFlags & OPENED) != 0 && cost[next] <= nextCost) continue;
+
+				flags[next] = (byte) ((nextFlags & ~DIRECTION) | OPENED | direction);
+				cost[next] = nextCost;
+				open.add(next, nextCost + distance(x + DX[direction], y + DY[direction], toX, toY));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Clears the search state, leaving only the layout of the maze.
+	 */
+	private void reset() {
+		System.arraycopy(layout, 0, flags, 0, layout.length);
+	}
+
+	/**
+	 * Works out where the walls and voids are from the grid.
+	 */
+	private void findWalls() {
+		int paddedHeight = height + 2;
+		for (int x = 0; x < paddedWidth; x++) {
+			layout[x] = BLOCKED;
+			layout[(paddedHeight - 1) * paddedWidth + x] = BLOCKED;
+		}
+		for (int y = 0; y < height; y++) {
+			int row = (y + 1) * paddedWidth;
+			layout[row] = BLOCKED;
+			layout[row + paddedWidth - 1] = BLOCKED;
+
+			int cell = y * width;
+			for (int x = 0; x < width; x++) layout[row + x + 1] = layoutOf(cells[cell + x]);
+		}
+	}
+
+	private static byte layoutOf(byte tile) {
+		if (tile == WALL) return BLOCKED;
+		if (tile == VOID) return IS_VOID;
+		return 0;
+	}
+
+	/**
+	 * Walks back from finish to start along the directions kept in the flags.
+	 */
+	private MazePath buildPath(int start, int finish, int explored) {
+		int length = 1;
+		for (int tile = finish; tile != start; tile -= offsets[flags[tile] & DIRECTION]) length++;
+
+		int[] tiles = new int[length];
+		int cost = 0;
+		int tile = finish;
+		for (int step = length - 1; step >= 0; step--) {
+			tiles[step] = unpad(tile);
+			if (tile != start) {
+				cost += cells[tiles[step]] == VOID ? voidCost : 1;
+				tile -= offsets[flags[tile] & DIRECTION];
+			}
+		}
+		return new MazePath(width, tiles, cost, explored);
+	}
+
+	/**
+	 * Converts a grid index to the index of the same tile in the search arrays.
+	 */
+	private int pad(int index) {
+		return (index / width + 1) * paddedWidth + index % width + 1;
+	}
+
+	/**
+	 * Converts an index in the search arrays back to a grid index. The tile must be inside the maze.
+	 */
+	private int unpad(int index) {
+		return (index / paddedWidth - 1) * width + index % paddedWidth - 1;
+	}
+
+	private static int distance(int x, int y, int toX, int toY) {
+		return Math.abs(toX - x) + Math.abs(toY - y);
+	}
+
+}